@@ -0,0 +1,29 @@
+package com.axconstantino.auth.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated listing. Unlike a {@code Page} it carries no total count, and the next
+ * slice is requested with the opaque {@code nextCursor} rather than a page number, so every slice costs
+ * the same to fetch however deep it is.
+ *
+ * @param content    the items of this slice
+ * @param nextCursor the cursor to request the next slice with, null on the last slice
+ */
+public record CursorSlice<T>(
+        List<T> content,
+        String nextCursor
+) {
+
+    @JsonProperty("hasNext")
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> CursorSlice<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorSlice<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
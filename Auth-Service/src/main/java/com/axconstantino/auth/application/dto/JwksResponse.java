@@ -0,0 +1,13 @@
+package com.axconstantino.auth.application.dto;
+
+import java.time.Duration;
+
+/**
+ * Pre-rendered JSON Web Key Set with the metadata needed to serve it with HTTP caching.
+ *
+ * @param json   the JWKS document
+ * @param etag   the quoted strong ETag of the document
+ * @param maxAge how long clients may cache the document
+ */
+public record JwksResponse(String json, String etag, Duration maxAge) {
+}
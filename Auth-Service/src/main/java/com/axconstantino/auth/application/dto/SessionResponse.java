@@ -0,0 +1,18 @@
+package com.axconstantino.auth.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * A live session of the user, one device. The id is a digest of one of the session's tokens, never a token itself.
+ */
+public record SessionResponse(
+        String id,
+        @JsonProperty("ip_address")
+        String ipAddress,
+        @JsonProperty("user_agent")
+        String userAgent,
+        @JsonProperty("expires_at")
+        Instant expiresAt
+) {}
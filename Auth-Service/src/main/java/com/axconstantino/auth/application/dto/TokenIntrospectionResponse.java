@@ -0,0 +1,22 @@
+package com.axconstantino.auth.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * RFC 7662 style introspection result. Inactive tokens only carry {@code active=false}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospectionResponse(
+        boolean active,
+        String sub,
+        @JsonProperty("user_id")
+        String userId,
+        String roles,
+        Long exp
+) {
+
+    public static TokenIntrospectionResponse inactive() {
+        return new TokenIntrospectionResponse(false, null, null, null, null);
+    }
+}
@@ -1,6 +1,8 @@
 package com.axconstantino.auth.application.service;
 
+import com.axconstantino.auth.application.dto.CursorSlice;
 import com.axconstantino.auth.application.usecase.AdminUserManagement;
+import com.axconstantino.auth.domain.exception.InvalidCursorException;
 import com.axconstantino.auth.domain.exception.UserNotFoundException;
 import com.axconstantino.auth.domain.model.Role;
 import com.axconstantino.auth.domain.model.User;
@@ -11,6 +13,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -19,11 +24,43 @@ import java.util.UUID;
 public class AdminService implements AdminUserManagement {
     private final UserRepository repository;
 
+    private static final int MAX_SLICE_SIZE = 100;
+
     @Override
     public Page<User> listAllUsers(Pageable pageable) {
         return repository.findAll(pageable);
     }
 
+    /**
+     * Lists users in user name order with keyset pagination: the cursor encodes the last user name returned,
+     * and the next slice starts after it through an index seek, with no count query.
+     * One extra user is fetched to know whether another slice follows.
+     */
+    @Override
+    public CursorSlice<User> listUsers(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_SLICE_SIZE);
+        String afterUserName = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+
+        List<User> users = repository.findAllByUserNameAfter(afterUserName, limit + 1);
+        if (users.size() <= limit) {
+            return new CursorSlice<>(users, null);
+        }
+        List<User> content = users.subList(0, limit);
+        return new CursorSlice<>(content, encodeCursor(content.get(limit - 1).getUserName()));
+    }
+
+    private static String encodeCursor(String userName) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(userName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
     @Override
     public User getUserDetails(UUID userId) {
         return repository.findById(userId)
@@ -32,7 +69,7 @@ public class AdminService implements AdminUserManagement {
 
     @Override
     public void deactivateUser(UUID userId) {
-        User user = repository.findById(userId)
+        User user = repository.findWithCredentialsById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         user.deactivate();
         repository.save(user);
@@ -41,7 +78,7 @@ public class AdminService implements AdminUserManagement {
 
     @Override
     public void activateUser(UUID userId) {
-        User user = repository.findById(userId)
+        User user = repository.findWithCredentialsById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         user.activate();
         repository.save(user);
@@ -50,7 +87,7 @@ public class AdminService implements AdminUserManagement {
 
     @Override
     public void assignRoleToUser(UUID userId, Role roleName) {
-        User user = repository.findById(userId)
+        User user = repository.findWithCredentialsById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         user.assignRole(roleName);
         repository.save(user);
@@ -59,7 +96,7 @@ public class AdminService implements AdminUserManagement {
 
     @Override
     public void removeRoleFromUser(UUID userId, Role roleName){
-        User user = repository.findById(userId)
+        User user = repository.findWithCredentialsById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
         user.removeRole(roleName);
         repository.save(user);
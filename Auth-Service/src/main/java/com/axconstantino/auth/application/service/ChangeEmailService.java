@@ -33,7 +33,7 @@ public class ChangeEmailService implements ChangeEmail {
     @Override
     @Transactional
     public void execute(ChangeEmailCommand command) {
-        User user = repository.findById(command.userId())
+        User user = repository.findWithCredentialsById(command.userId())
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         if (!passwordEncoder.matches(command.currentPassword(), user.getPassword())) {
@@ -47,6 +47,7 @@ public class ChangeEmailService implements ChangeEmail {
         }
 
         user.changeEmail(command.newEmail());
+        repository.save(user);
         log.info("[ChangeEmailService] Email updated for user ID: {}", user.getId());
         tokenService.revokeAllUserTokens(user);
         log.info("[ChangeEmailService] All tokens revoked for user ID: {}", user.getId());
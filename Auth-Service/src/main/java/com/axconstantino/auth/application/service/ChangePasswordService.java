@@ -32,7 +32,7 @@ public class ChangePasswordService implements ChangePassword {
     @Override
     @Transactional
     public void execute(ChangePasswordCommand command) {
-        User user = repository.findById(command.userId())
+        User user = repository.findWithCredentialsById(command.userId())
                 .orElseThrow(() -> {
                     log.error("[ChangePasswordService] User not found with ID: {}", command.userId());
                     return new UserNotFoundException("User not found");
@@ -44,6 +44,7 @@ public class ChangePasswordService implements ChangePassword {
         }
 
         user.changePassword(passwordEncoder.encode(command.newPassword()));
+        repository.save(user);
         log.info("[ChangePasswordService] Password updated for user ID: {}", user.getId());
         tokenService.revokeAllUserTokens(user);
         log.info("[ChangeEmailService] All tokens revoked for user ID: {}", user.getId());
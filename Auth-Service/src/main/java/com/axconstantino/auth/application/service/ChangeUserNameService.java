@@ -33,7 +33,7 @@ public class ChangeUserNameService implements ChangeUserName {
     @Override
     @Transactional
     public void execute(ChangeUserNameCommand command) {
-        User user = repository.findById(command.userId())
+        User user = repository.findWithCredentialsById(command.userId())
                 .orElseThrow(() -> new UserNotFoundException("User Not Found"));
 
         if (!passwordEncoder.matches(command.currentPassword(), user.getPassword())) {
@@ -47,6 +47,7 @@ public class ChangeUserNameService implements ChangeUserName {
         }
 
         user.changeName(command.newName());
+        repository.save(user);
         log.info("[ChangeUserNameService] Username updated for user ID: {}", user.getId());
         tokenService.revokeAllUserTokens(user);
         log.info("[ChangeEmailService] All tokens revoked for user ID: {}", user.getId());
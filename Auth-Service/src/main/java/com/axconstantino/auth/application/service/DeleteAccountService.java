@@ -17,7 +17,7 @@ import java.util.UUID;
  * Service responsible for deleting a user from the system.
  * <p>
  * This service handles the deletion of a user by their ID, revokes all associated tokens,
- * and publishes an event indicating that the user has been deleted.
+ * and publishes an event indicating that the user has been deleted, once the deletion is committed.
  * </p>
  */
 @Slf4j
@@ -0,0 +1,94 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.ExportFormat;
+import com.axconstantino.auth.application.usecase.ExportUsers;
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.UserSummary;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service exporting every live user as NDJSON or CSV.
+ * <p>
+ * Users are read through a forward-only database cursor and each one is written to the output as soon as it is
+ * read, so memory use does not depend on the number of users. The export runs in a single read-only transaction,
+ * which the cursor needs to stay open.
+ * </p>
+ * <p>
+ * CSV fields starting with {@code =}, {@code +}, {@code -} or {@code @} are prefixed with a single quote so a user
+ * name cannot be interpreted as a formula when the file is opened in a spreadsheet.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportUsersService implements ExportUsers {
+
+    private static final String CSV_HEADER = "id,userName,email,roles,active,emailVerified";
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void execute(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long exported = 0;
+
+        try (Stream<UserSummary> users = userRepository.streamAllSummaries()) {
+            ObjectWriter jsonWriter = objectMapper.writerFor(UserSummary.class);
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<UserSummary> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                UserSummary user = iterator.next();
+                writer.write(format == ExportFormat.CSV ? toCsv(user) : jsonWriter.writeValueAsString(user));
+                writer.write('\n');
+                exported++;
+            }
+        }
+        writer.flush();
+
+        log.info("[ExportUsersService] Exported {} users as {}", exported, format);
+    }
+
+    private static String toCsv(UserSummary user) {
+        return String.join(",",
+                user.id().toString(),
+                csvField(user.userName()),
+                csvField(user.email()),
+                csvField(user.roles().stream().map(Role::name).sorted().collect(Collectors.joining(";"))),
+                String.valueOf(user.active()),
+                String.valueOf(user.emailVerified()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,32 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.JwksResponse;
+import com.axconstantino.auth.application.usecase.GetJwks;
+import com.axconstantino.auth.infrastructure.jwt.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service exposing the public JWT keys so resource servers can verify tokens without sharing PEM configuration.
+ * <p>
+ * The document is rendered once when the {@link JwtKeyRing} is built, so serving it costs no cryptographic
+ * or serialization work.
+ * </p>
+ */
+@Service
+@RequiredArgsConstructor
+public class GetJwksService implements GetJwks {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks.max-age:PT15M}")
+    private Duration maxAge;
+
+    @Override
+    public JwksResponse execute() {
+        return new JwksResponse(keyRing.jwksJson(), keyRing.jwksEtag(), maxAge);
+    }
+}
@@ -0,0 +1,93 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.TokenIntrospectionResponse;
+import com.axconstantino.auth.application.usecase.IntrospectToken;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
+import com.axconstantino.auth.infrastructure.token.RevocationMode;
+import com.axconstantino.auth.infrastructure.token.TokenFormat;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Service resolving access tokens, opaque or JWT, against the Redis token store. Any other kind of token, such as
+ * a refresh token, is reported inactive.
+ * <p>
+ * Every token held in the store is cached under its own key with a TTL matching its expiration and removed on
+ * revocation, so a single key lookup answers whether it is still active; no signature check or database query
+ * is needed.
+ * </p>
+ * <p>
+ * In {@link RevocationMode#DENYLIST} mode JWTs are not in the store: they are verified locally (the result is
+ * cached) and then checked against the {@code jti} denylist and the user's issued-before cutoff, which is still
+ * a single Redis round trip.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IntrospectTokenService implements IntrospectToken {
+
+    private final TokenCacheRepository cacheRepository;
+    private final JwtProvider jwtProvider;
+
+    @Value("${auth.token.revocation-mode:ALLOWLIST}")
+    private RevocationMode revocationMode;
+
+    @Override
+    public TokenIntrospectionResponse execute(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenIntrospectionResponse.inactive();
+        }
+
+        if (revocationMode == RevocationMode.DENYLIST && TokenFormat.of(token) == TokenFormat.JWT) {
+            return introspectJwt(token);
+        }
+
+        return cacheRepository.find(token)
+                // Refresh tokens are cached too, but must never pass for access tokens
+                .filter(data -> data.type() == TokenType.ACCESS_TOKEN)
+                .filter(data -> data.active() && data.expiresAt().isAfter(Instant.now()))
+                .map(data -> new TokenIntrospectionResponse(
+                        true,
+                        data.subject(),
+                        data.userId(),
+                        data.roles(),
+                        data.expiresAt().getEpochSecond()
+                ))
+                .orElseGet(() -> {
+                    log.debug("[IntrospectTokenService] Token is unknown, revoked or expired");
+                    return TokenIntrospectionResponse.inactive();
+                });
+    }
+
+    private TokenIntrospectionResponse introspectJwt(String token) {
+        VerifiedToken jwt;
+        try {
+            jwt = jwtProvider.parse(token);
+        } catch (JwtException e) {
+            log.debug("[IntrospectTokenService] Token is invalid or expired");
+            return TokenIntrospectionResponse.inactive();
+        }
+
+        if (!jwt.isAccessToken() || cacheRepository.isDenied(jwt.id(), jwt.userId(), jwt.issuedAt())) {
+            log.debug("[IntrospectTokenService] Token is revoked or not an authentication token");
+            return TokenIntrospectionResponse.inactive();
+        }
+
+        return new TokenIntrospectionResponse(
+                true,
+                jwt.subject(),
+                jwt.userId(),
+                jwt.roles(),
+                jwt.expiresAt().getEpochSecond()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.SessionResponse;
+import com.axconstantino.auth.application.usecase.ListSessions;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service listing the live sessions (devices) of a user from the Redis session index.
+ * <p>
+ * A session groups the access and refresh token issued together, and those that replaced them on refresh. It is
+ * identified by a digest of its first refresh token, which can be passed to {@link RevokeSessionService} without
+ * ever exposing a token; tokens stored before sessions had ids are listed on their own, under their digest. Only
+ * tokens held in the token store are listed, so JWTs issued in denylist revocation mode do not appear.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ListSessionsService implements ListSessions {
+
+    private final TokenCacheRepository cacheRepository;
+
+    @Override
+    public List<SessionResponse> execute(UUID userId) {
+        // Tokens come soonest to expire first, so the last of a session is its latest refresh token
+        Map<String, TokenData> latestBySession = new LinkedHashMap<>();
+        for (TokenData data : cacheRepository.findSessions(userId.toString())) {
+            latestBySession.put(sessionIdOf(data), data);
+        }
+        List<SessionResponse> sessions = latestBySession.entrySet().stream()
+                .map(session -> new SessionResponse(
+                        session.getKey(),
+                        session.getValue().ipAddress(),
+                        session.getValue().userAgent(),
+                        session.getValue().expiresAt()
+                ))
+                .sorted(Comparator.comparing(SessionResponse::expiresAt))
+                .toList();
+
+        log.debug("[ListSessionsService] Found {} live sessions for user ID: {}", sessions.size(), userId);
+        return sessions;
+    }
+
+    static String sessionIdOf(TokenData data) {
+        return data.sessionId() != null ? data.sessionId() : TokenDigest.sha256Base64Url(data.tokenValue());
+    }
+}
@@ -10,29 +10,34 @@ import com.axconstantino.auth.domain.exception.LockedException;
 import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.domain.model.TokenType;
 import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.model.UserCredentials;
+import com.axconstantino.auth.domain.repository.TokenRepository;
 import com.axconstantino.auth.domain.repository.UserRepository;
 import com.axconstantino.auth.domain.exception.BadCredentialsException;
 import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.axconstantino.auth.infrastructure.token.AccessTokenIssuer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Service responsible for authenticating a user and issuing new JWT access and refresh tokens.
  * <p>
  * This includes:
  * <ul>
- *     <li>Verifying the user's credentials (email and password)</li>
+ *     <li>Verifying the user's credentials (email and password), loaded without the user's token history</li>
  *     <li>Rejecting access if the user is inactive or has not verified their email</li>
  *     <li>Enforcing brute-force protection with Redis (max 5 failed attempts in 15 minutes)</li>
  *     <li>Revoking all previously issued tokens</li>
- *     <li>Generating and associating new signed JWTs</li>
+ *     <li>Generating and associating new tokens, with the access token format chosen per client type</li>
  *     <li>Caching tokens in Redis for fast validation by the API Gateway</li>
  * </ul>
  * </p>
@@ -40,6 +45,11 @@ import java.time.Duration;
  * If authentication fails due to invalid credentials or exceeded attempt limits,
  * an appropriate exception is thrown and handled globally by {@link GlobalExceptionHandler}.
  * </p>
+ * <p>
+ * Only the token writes run in a read-write transaction. The credentials are read and checked before it begins, in
+ * their own read-only transaction, so a login never holds two connections at once and holds none while the
+ * password hash is checked.
+ * </p>
  */
 @Slf4j
 @Service
@@ -47,10 +57,13 @@ import java.time.Duration;
 public class LoginUserService implements LoginUser {
 
     private final JwtProvider jwtProvider;
+    private final AccessTokenIssuer accessTokenIssuer;
     private final TokenService tokenService;
     private final UserRepository userRepository;
+    private final TokenRepository tokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     private static final int MAX_ATTEMPTS = 5;
     private static final Duration ATTEMPT_EXPIRATION = Duration.ofMinutes(15);
@@ -67,11 +80,11 @@ public class LoginUserService implements LoginUser {
      * @throws BadCredentialsException      if the credentials are invalid.
      */
     @Override
-    @Transactional
     public TokenResponse execute(AuthenticateCommand command, HttpServletRequest request) {
         String email = command.email().toLowerCase();
         String ip = request.getRemoteAddr();
         String userAgent = request.getHeader("User-Agent");
+        String clientType = request.getHeader(AccessTokenIssuer.CLIENT_TYPE_HEADER);
 
         log.info("[Login] Attempting login for email: {}", email);
         checkLoginAttempts(email);
@@ -79,9 +92,11 @@ public class LoginUserService implements LoginUser {
         User user = validateUserCredentials(command);
 
         resetLoginAttempts(email);
-        revokeOldTokens(user);
 
-        TokenResponse response = generateAndSaveTokens(user, ip, userAgent);
+        TokenResponse response = transactionTemplate.execute(status -> {
+            revokeOldTokens(user);
+            return generateAndSaveTokens(user, ip, userAgent, clientType);
+        });
         log.info("[Login] Authentication successful for user ID: {}", user.getId());
 
         return response;
@@ -90,7 +105,7 @@ public class LoginUserService implements LoginUser {
     // --- Validation and security checks ---
 
     private void checkLoginAttempts(String email) {
-        String key = "login:fail:" + email;
+        String key = RedisKeyLayout.loginFailuresKey(email);
         String attemptsStr = redisTemplate.opsForValue().get(key);
         int attempts = attemptsStr != null ? Integer.parseInt(attemptsStr) : 0;
 
@@ -101,7 +116,7 @@ public class LoginUserService implements LoginUser {
     }
 
     private void registerFailedAttempt(String email) {
-        String key = "login:fail:" + email;
+        String key = RedisKeyLayout.loginFailuresKey(email);
         Long attempts = redisTemplate.opsForValue().increment(key);
         if (attempts == 1) {
             redisTemplate.expire(key, ATTEMPT_EXPIRATION);
@@ -110,30 +125,31 @@ public class LoginUserService implements LoginUser {
     }
 
     private void resetLoginAttempts(String email) {
-        redisTemplate.delete("login:fail:" + email);
+        redisTemplate.delete(RedisKeyLayout.loginFailuresKey(email));
         log.debug("[Login] Login attempts reset for email: {}", email);
     }
 
     private User validateUserCredentials(AuthenticateCommand command) {
-        return userRepository.findByEmail(command.email())
-                .filter(user -> {
-                    if (!user.isEmailVerified()) {
-                        log.warn("[Login] Email not verified for user: {}", user.getEmail());
+        return userRepository.findCredentialsByEmail(command.email())
+                .filter(credentials -> {
+                    if (!credentials.emailVerified()) {
+                        log.warn("[Login] Email not verified for user: {}", credentials.email());
                         throw new EmailNotVerifiedException("Email not verified");
                     }
-                    if (!user.isActive()) {
-                        log.warn("[Login] User is inactive: {}", user.getEmail());
+                    if (!credentials.active()) {
+                        log.warn("[Login] User is inactive: {}", credentials.email());
                         throw new InactiveUserException("User is inactive");
                     }
                     return true;
                 })
-                .filter(user -> {
-                    if (!passwordEncoder.matches(command.password(), user.getPassword())) {
+                .filter(credentials -> {
+                    if (!passwordEncoder.matches(command.password(), credentials.passwordHash())) {
                         registerFailedAttempt(command.email());
                         throw new BadCredentialsException("Invalid email or password");
                     }
                     return true;
                 })
+                .map(UserCredentials::toUser)
                 .orElseThrow(() -> {
                     registerFailedAttempt(command.email());
                     log.warn("[Login] Email not found: {}", command.email());
@@ -148,11 +164,11 @@ public class LoginUserService implements LoginUser {
         tokenService.revokeAllUserTokens(user);
     }
 
-    private TokenResponse generateAndSaveTokens(User user, String ip, String userAgent) {
+    private TokenResponse generateAndSaveTokens(User user, String ip, String userAgent, String clientType) {
         log.debug("[Login] Generating tokens for user ID: {}", user.getId());
 
         Token accessToken = tokenService.createToken(
-                jwtProvider.generateAccessToken(user),
+                accessTokenIssuer.issue(user, clientType),
                 TokenType.ACCESS_TOKEN,
                 user, ip, userAgent
         );
@@ -163,12 +179,10 @@ public class LoginUserService implements LoginUser {
                 user, ip, userAgent
         );
 
-        user.addToken(accessToken);
-        user.addToken(refreshToken);
-        userRepository.save(user);
+        // The user was loaded without its tokens, so the new ones are saved directly rather than through the user
+        tokenRepository.saveAll(List.of(accessToken, refreshToken));
 
-        tokenService.saveTokenInCache(user, accessToken);
-        tokenService.saveTokenInCache(user, refreshToken);
+        tokenService.saveSessionInCache(user, accessToken, refreshToken, null);
 
         log.debug("[Login] Tokens generated and persisted for user ID: {}", user.getId());
 
@@ -16,8 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
  * The logout process includes:
  * <ul>
  *     <li>Extracting the Bearer token from the Authorization header.</li>
- *     <li>Validating and locating the token in the database.</li>
- *     <li>Revoking the token and marking it as invalid.</li>
+ *     <li>Revoking the token with a single conditional update, in the database or, in write-behind mode, in
+ *     Redis with the database write queued.</li>
  *     <li>Removing the token from Redis cache to prevent reuse.</li>
  * </ul>
  * </p>
@@ -27,7 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
  * </p>
  *
  * <p>
- * If the Authorization header is missing, malformed, or the token is not found in the system,
+ * If the Authorization header is missing, malformed, or the token is not found in the system or already revoked,
  * a {@link BadCredentialsException} is thrown.
  * </p>
  */
@@ -56,14 +56,11 @@ public class LogoutService implements Logout {
 
         String token = authHeader.substring(7);
 
-        tokenRepository.findByToken(token).ifPresentOrElse(storedToken -> {
-            storedToken.revoke();
-            tokenRepository.save(storedToken);
-            tokenService.deleteTokenFromCache(token);
-            log.info("[LogoutService] Token successfully revoked");
-        }, () -> {
-            log.warn("[LogoutService] Token not found in DB: {}", token);
+        if (!tokenRepository.revoke(token)) {
+            log.warn("[LogoutService] Token not found in DB or already revoked: {}", token);
             throw new BadCredentialsException("Invalid token");
-        });
+        }
+        tokenService.deleteTokenFromCache(token);
+        log.info("[LogoutService] Token successfully revoked");
     }
 }
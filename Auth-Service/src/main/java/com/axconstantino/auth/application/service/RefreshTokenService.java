@@ -7,6 +7,8 @@ import com.axconstantino.auth.domain.model.TokenType;
 import com.axconstantino.auth.domain.repository.TokenRepository;
 import com.axconstantino.auth.domain.exception.BadCredentialsException;
 import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.token.AccessTokenIssuer;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 /**
  * Service responsible for refreshing authentication tokens using a valid refresh token.
  * <p>
@@ -37,6 +41,7 @@ public class RefreshTokenService implements RefreshToken {
     private final TokenRepository tokenRepository;
     private final TokenService tokenService;
     private final JwtProvider jwtProvider;
+    private final AccessTokenIssuer accessTokenIssuer;
 
     /**
      * Executes the token refresh flow based on the provided refresh token from the Authorization header.
@@ -50,6 +55,7 @@ public class RefreshTokenService implements RefreshToken {
     public TokenResponse execute(HttpServletRequest httpRequest) {
         final String authHeader = httpRequest.getHeader(HttpHeaders.AUTHORIZATION);
         final String refreshToken;
+        final VerifiedToken verifiedRefreshToken;
         final String userEmail;
 
         // Extract token from header
@@ -59,7 +65,8 @@ public class RefreshTokenService implements RefreshToken {
         }
 
         refreshToken = authHeader.substring(7);
-        userEmail = jwtProvider.extractUsername(refreshToken);
+        verifiedRefreshToken = jwtProvider.parse(refreshToken);
+        userEmail = verifiedRefreshToken.subject();
 
         if (userEmail == null) {
             log.warn("[RefreshTokenService] Token does not contain a valid user email");
@@ -78,21 +85,27 @@ public class RefreshTokenService implements RefreshToken {
             throw new BadCredentialsException("Invalid refresh token");
         }
 
-        if (jwtProvider.isTokenExpired(refreshToken)) {
+        if (verifiedRefreshToken.isExpired()) {
             log.warn("[RefreshTokenService] Token expired for user: {}", userEmail);
             throw new BadCredentialsException("Refresh token has expired");
         }
 
         // Generate new tokens
         var user = storedToken.getUser();
-        String newAccessToken = jwtProvider.generateAccessToken(user);
-        String newRefreshToken = jwtProvider.generateRefreshToken(user);
+        VerifiedToken newAccessToken = accessTokenIssuer.issue(user, httpRequest.getHeader(AccessTokenIssuer.CLIENT_TYPE_HEADER));
+        VerifiedToken newRefreshToken = jwtProvider.generateRefreshToken(user);
 
-        // Revoke old token
-        storedToken.revoke();
-        tokenRepository.save(storedToken);
+        // Revoke old token; the conditional update only succeeds once, so a concurrent reuse is rejected
+        if (!tokenRepository.revoke(refreshToken)) {
+            log.warn("[RefreshTokenService] Refresh token already used. User: {}", userEmail);
+            throw new BadCredentialsException("Invalid refresh token");
+        }
         log.debug("[RefreshTokenService] Revoked old refresh token for user: {}", userEmail);
 
+        // The new tokens continue the old refresh token's session, which no longer lists it
+        String sessionId = tokenService.findSessionId(refreshToken).orElse(null);
+        tokenService.deleteTokenFromCache(refreshToken);
+
         // Capture client metadata
         String ipAddress = httpRequest.getRemoteAddr();
         String userAgent = httpRequest.getHeader("User-Agent");
@@ -101,12 +114,11 @@ public class RefreshTokenService implements RefreshToken {
         Token newAccessTokenEntity = tokenService.createToken(newAccessToken, TokenType.ACCESS_TOKEN, user, ipAddress, userAgent);
         Token newRefreshTokenEntity = tokenService.createToken(newRefreshToken, TokenType.REFRESH_TOKEN, user, ipAddress, userAgent);
 
-        user.addToken(newAccessTokenEntity);
-        user.addToken(newRefreshTokenEntity);
+        tokenRepository.saveAll(List.of(newAccessTokenEntity, newRefreshTokenEntity));
 
-        tokenService.saveTokenInCache(user, newAccessTokenEntity);
+        tokenService.saveSessionInCache(user, newAccessTokenEntity, newRefreshTokenEntity, sessionId);
         log.info("[RefreshTokenService] Tokens refreshed successfully for user: {}", userEmail);
 
-        return new TokenResponse(newAccessToken, newRefreshToken);
+        return new TokenResponse(newAccessToken.value(), newRefreshToken.value());
     }
 }
\ No newline at end of file
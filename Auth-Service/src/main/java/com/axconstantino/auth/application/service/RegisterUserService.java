@@ -9,18 +9,23 @@ import com.axconstantino.auth.domain.model.Role;
 import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.domain.model.TokenType;
 import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.model.UserIdentifier;
+import com.axconstantino.auth.domain.repository.TokenRepository;
 import com.axconstantino.auth.domain.repository.UserRepository;
 import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.token.AccessTokenIssuer;
 import com.axconstantino.auth.infrastructure.kafka.EventPublisherService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 
@@ -29,11 +34,14 @@ import java.util.Set;
  * <p>
  * The registration process includes:
  * <ul>
- *     <li>Validating email and username uniqueness</li>
+ *     <li>Validating email and username uniqueness, in a single lookup, unless
+ *     {@code auth.registration.uniqueness-precheck} is off; the database's unique constraints catch
+ *     concurrent registrations either way</li>
  *     <li>Creating and persisting a new {@link User} with default roles</li>
  *     <li>Generating access and refresh JWT tokens</li>
  *     <li>Saving tokens and caching the access token for quick validation</li>
- *     <li>Publishing a {@link UserRegisteredEvent} to Kafka for further processing</li>
+ *     <li>Publishing a {@link UserRegisteredEvent} to Kafka for further processing, through the outbox so it is
+ *     only sent once the registration is committed</li>
  * </ul>
  * </p>
  * <p>
@@ -46,11 +54,16 @@ import java.util.Set;
 public class RegisterUserService implements RegisterUser {
 
     private final JwtProvider jwtProvider;
+    private final AccessTokenIssuer accessTokenIssuer;
     private final UserRepository repository;
+    private final TokenRepository tokenRepository;
     private final TokenService tokenService;
     private final PasswordEncoder passwordEncoder;
     private final EventPublisherService eventPublisher;
 
+    @Value("${auth.registration.uniqueness-precheck:true}")
+    private boolean uniquenessPrecheck;
+
     /**
      * Registers a new user and generates authentication tokens.
      *
@@ -64,8 +77,9 @@ public class RegisterUserService implements RegisterUser {
     public TokenResponse execute(RegisterCommand command, HttpServletRequest httpRequest) {
         log.info("[RegisterUserService] Starting registration process for email: {}", command.email());
 
-        validateEmailNotInUse(command.email());
-        validateUserNameNotInUse(command.userName());
+        if (uniquenessPrecheck) {
+            validateCredentialsNotInUse(command.email(), command.userName());
+        }
 
         User user = User.register(
                 command.userName(),
@@ -73,6 +87,8 @@ public class RegisterUserService implements RegisterUser {
                 encodePassword(command.password()),
                 getDefaultRoles()
         );
+        // Written immediately: a registration racing past the check fails here with DuplicateCredentialsException
+        repository.save(user);
 
         String ipAddress = httpRequest.getRemoteAddr();
         String userAgent = httpRequest.getHeader("User-Agent");
@@ -80,7 +96,7 @@ public class RegisterUserService implements RegisterUser {
 
         // Generate and associate tokens
         Token accessToken = tokenService.createToken(
-                jwtProvider.generateAccessToken(user),
+                accessTokenIssuer.issue(user, httpRequest.getHeader(AccessTokenIssuer.CLIENT_TYPE_HEADER)),
                 TokenType.ACCESS_TOKEN,
                 user,
                 ipAddress,
@@ -95,15 +111,12 @@ public class RegisterUserService implements RegisterUser {
                 userAgent
         );
 
-        user.addToken(accessToken);
-        user.addToken(refreshToken);
-
-        repository.save(user);
-        tokenService.saveTokenInCache(user, accessToken);
+        tokenRepository.saveAll(List.of(accessToken, refreshToken));
+        tokenService.saveSessionInCache(user, accessToken, refreshToken, null);
 
         log.info("[RegisterUserService] User registered successfully - ID: {}, Email: {}", user.getId(), user.getEmail());
 
-        // Publish registration event to Kafka
+        // Written to the outbox in this transaction, published to Kafka after commit
         eventPublisher.publishUserRegisteredEvent(new UserRegisteredEvent(
                 user.getId(),
                 user.getUserName(),
@@ -114,27 +127,20 @@ public class RegisterUserService implements RegisterUser {
     }
 
     /**
-     * Ensures that the provided email is not already associated with an existing user.
+     * Ensures that neither the email nor the username belongs to an existing user, with a single lookup.
      *
-     * @param email the email to validate
-     * @throws DuplicateCredentialsException if the email is already registered
+     * @param email    the email to validate
+     * @param userName the username to validate
+     * @throws DuplicateCredentialsException if the email is already registered or the username already taken
      */
-    private void validateEmailNotInUse(String email) {
-        if (repository.existsByEmail(email)) {
+    private void validateCredentialsNotInUse(String email, String userName) {
+        Set<UserIdentifier> taken = repository.findTakenIdentifiers(email, userName);
+        if (taken.contains(UserIdentifier.EMAIL)) {
             String errorMessage = String.format("Email '%s' is already registered", email);
             log.error("[RegisterUserService] {}", errorMessage);
             throw new DuplicateCredentialsException(errorMessage);
         }
-    }
-
-    /**
-     * Ensures that the provided username is unique across all users.
-     *
-     * @param userName the username to validate
-     * @throws DuplicateCredentialsException if the username is already taken
-     */
-    private void validateUserNameNotInUse(String userName) {
-        if (repository.existsByUserName(userName)) {
+        if (taken.contains(UserIdentifier.USER_NAME)) {
             String errorMessage = String.format("Username '%s' is already in use", userName);
             log.error("[RegisterUserService] {}", errorMessage);
             throw new DuplicateCredentialsException(errorMessage);
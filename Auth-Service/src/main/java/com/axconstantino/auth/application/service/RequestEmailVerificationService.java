@@ -63,7 +63,7 @@ public class RequestEmailVerificationService implements RequestEmailVerification
                 email,
                 user.getId(),
                 emailVerificationExpirationMillis
-        );
+        ).value();
         log.debug("Generated email verification token for user ID {}: {}", user.getId(), token);
 
         // Step 3: Store token in Redis with expiration
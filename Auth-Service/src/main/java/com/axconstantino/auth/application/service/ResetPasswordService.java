@@ -45,7 +45,11 @@ public class ResetPasswordService implements ResetPassword {
             throw new BadCredentialsException("Invalid or expired code");
         }
 
+        // Reloaded from the store: the user looked up by email may come from the cache, which cannot be saved
+        user = repository.findWithCredentialsById(user.getId())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
         user.changePassword(passwordEncoder.encode(command.newPassword()));
+        repository.save(user);
         redisTemplate.delete(key);
         log.info("[ResetPasswordService] Password successfully reset for user ID: {}", user.getId());
         tokenService.revokeAllUserTokens(user);
@@ -0,0 +1,50 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.usecase.RevokeSession;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.domain.repository.TokenRepository;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service revoking a single session of a user, as listed by {@link ListSessionsService}.
+ * <p>
+ * The session is looked up among the user's own sessions only, so a user cannot revoke someone else's
+ * token. Every token of the session is revoked, the refresh token along with the access token, so the device
+ * cannot sign back in. Revoking a session that no longer exists is a no-op.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RevokeSessionService implements RevokeSession {
+
+    private final TokenCacheRepository cacheRepository;
+    private final TokenRepository tokenRepository;
+    private final TokenService tokenService;
+
+    @Override
+    @Transactional
+    public void execute(UUID userId, String sessionId) {
+        List<String> tokens = cacheRepository.findSessions(userId.toString()).stream()
+                .filter(data -> ListSessionsService.sessionIdOf(data).equals(sessionId))
+                .map(TokenData::tokenValue)
+                .toList();
+        if (tokens.isEmpty()) {
+            log.debug("[RevokeSessionService] Session not found for user ID: {}", userId);
+            return;
+        }
+
+        for (String token : tokens) {
+            tokenRepository.revoke(token);
+            tokenService.deleteTokenFromCache(token);
+        }
+        log.info("[RevokeSessionService] Session of {} tokens revoked for user ID: {}", tokens.size(), userId);
+    }
+}
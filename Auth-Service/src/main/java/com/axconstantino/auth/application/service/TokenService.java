@@ -6,14 +6,21 @@ import com.axconstantino.auth.domain.model.User;
 import com.axconstantino.auth.domain.repository.TokenCacheRepository;
 import com.axconstantino.auth.domain.repository.TokenRepository;
 import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedTokenCache;
 import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import com.axconstantino.auth.infrastructure.token.RevocationMode;
+import com.axconstantino.auth.infrastructure.token.TokenFormat;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Service responsible for creating, caching, and revoking authentication tokens.
@@ -26,6 +33,9 @@ import java.util.concurrent.TimeUnit;
  * </ul>
  * </p>
  *
+ * <p>In {@link RevocationMode#DENYLIST} mode JWTs are not cached when issued; revoking them records their
+ * {@code jti} (or, for all of a user's tokens, an issued-before cutoff) instead.</p>
+ *
  * <p>Tokens include both ACCESS and REFRESH types and are associated with user metadata
  * such as IP address and user agent for additional security tracking.</p>
  */
@@ -34,29 +44,38 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class TokenService {
 
-    private final JwtProvider jwtProvider;
     private final TokenRepository tokenRepository;
     private final TokenCacheRepository cacheRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtProvider jwtProvider;
+
+    @Value("${auth.token.revocation-mode:ALLOWLIST}")
+    private RevocationMode revocationMode;
+
+    @Value("${jwt.refresh-token.expiration-time}")
+    private long refreshTokenExpiration;
 
     /**
-     * Creates a {@link Token} entity using the provided JWT string and user metadata.
-     * Extracts issued/expiration timestamps from the JWT and includes request info.
+     * Creates a {@link Token} entity using the provided JWT and user metadata.
+     * Issued/expiration timestamps are read from the already verified token, so no extra parsing is done.
      *
-     * @param tokenString The raw JWT string.
-     * @param type        The type of token (e.g., ACCESS_TOKEN or REFRESH_TOKEN).
-     * @param user        The authenticated user.
-     * @param ipAddress   The IP address from which the token was issued.
-     * @param userAgent   The client's User-Agent string.
+     * @param jwt       The issued token, as returned by {@link JwtProvider} or
+     *                  {@link com.axconstantino.auth.infrastructure.token.AccessTokenIssuer}.
+     * @param type      The type of token (e.g., ACCESS_TOKEN or REFRESH_TOKEN).
+     * @param user      The authenticated user.
+     * @param ipAddress The IP address from which the token was issued.
+     * @param userAgent The client's User-Agent string.
      * @return A fully initialized {@link Token} entity.
      */
-    public Token createToken(String tokenString, TokenType type, User user, String ipAddress, String userAgent) {
-        Instant issuedAt = jwtProvider.extractIssuedAt(tokenString).toInstant();
-        Instant expiresAt = jwtProvider.extractExpiration(tokenString).toInstant();
+    public Token createToken(VerifiedToken jwt, TokenType type, User user, String ipAddress, String userAgent) {
+        Instant issuedAt = jwt.issuedAt();
+        Instant expiresAt = jwt.expiresAt();
 
         log.trace("[TokenService] Creating {} token. Issued at: {}, Expires at: {}", type, issuedAt, expiresAt);
 
         return new Token(
-                tokenString,
+                jwt.value(),
+                TokenDigest.sha256(jwt.value()),
                 type,
                 issuedAt,
                 expiresAt,
@@ -68,57 +87,117 @@ public class TokenService {
     }
 
     /**
-     * Stores a token and its associated metadata in Redis cache with a TTL matching the token's expiration.
+     * Stores the access and refresh token issued together in Redis cache in one round trip, each with a TTL
+     * matching its expiration, as one session of the user. The subject and roles are stored alongside so opaque
+     * tokens can be resolved from the entry alone.
+     * <p>
+     * Both tokens carry the session id, so the session is listed once and revoked as a whole. The pair is only
+     * stored when the access token has to be, which in {@link RevocationMode#DENYLIST} mode means it is opaque.
+     * </p>
      *
-     * @param user  The owner of the token.
-     * @param token The {@link Token} to be cached.
+     * @param user         The owner of the tokens.
+     * @param accessToken  The access {@link Token} to be cached.
+     * @param refreshToken The refresh {@link Token} issued with it.
+     * @param sessionId    The session the tokens continue, as returned by {@link #findSessionId(String)} for the
+     *                     refresh token they replace; null to start a new session.
+     */
+    public void saveSessionInCache(User user, Token accessToken, Token refreshToken, String sessionId) {
+        if (!isStored(accessToken)) {
+            return;
+        }
+        // Derived from a token digest, so it is unique without exposing either token
+        String id = sessionId != null ? sessionId : TokenDigest.toBase64Url(refreshToken.getTokenHash());
+        cacheRepository.saveAll(List.of(toTokenData(user, accessToken, id), toTokenData(user, refreshToken, id)));
+
+        log.debug("[TokenService] Cached session tokens for user ID: {}", user.getId());
+    }
+
+    /**
+     * @return the session of a cached token, empty if the token is not cached or predates session ids
      */
-    public void saveTokenInCache(User user, Token token) {
-        Duration ttl = Duration.between(Instant.now(), token.getExpiresAt());
+    public Optional<String> findSessionId(String token) {
+        return cacheRepository.find(token).map(TokenData::sessionId);
+    }
 
-        TokenData data = new TokenData(
+    /**
+     * @return whether the token has to be written to the token store, which is only optional for JWTs in
+     * {@link RevocationMode#DENYLIST} mode
+     */
+    private boolean isStored(Token token) {
+        return revocationMode == RevocationMode.ALLOWLIST || TokenFormat.of(token.getToken()) == TokenFormat.OPAQUE;
+    }
+
+    private static TokenData toTokenData(User user, Token token, String sessionId) {
+        return new TokenData(
                 user.getId().toString(),
                 token.getToken(),
+                token.getTokenType(),
                 true,
                 token.getExpiresAt(),
                 token.getIpAddress(),
-                token.getUserAgent()
+                token.getUserAgent(),
+                user.getEmail(),
+                JwtProvider.rolesClaim(user),
+                sessionId
         );
-
-        cacheRepository.save(data, ttl.toSeconds(), TimeUnit.SECONDS);
-
-        log.debug("[TokenService] Cached token for user ID: {} with TTL: {} seconds", user.getId(), ttl.getSeconds());
     }
 
     /**
      * Revokes all valid (non-expired and not previously revoked) tokens for a given user.
-     * The tokens are revoked in both the database and the Redis cache.
+     * The tokens are revoked with a single set-based update whose returned digests drive the purge of the
+     * digest-keyed local caches; Redis is purged in bulk through the user's session index, so neither the
+     * number of statements nor the number of Redis round trips grows with the number of sessions.
+     * <p>
+     * Redis is purged even when no digest is returned: in write-behind mode only the digests of the tokens not
+     * yet written to the database are known, while older tokens may still be cached.
+     * </p>
      *
      * @param user The user whose tokens will be revoked.
      */
     public void revokeAllUserTokens(User user) {
-        var validUserTokens = tokenRepository.findAllValidTokensByUser(user.getId());
-
-        if (validUserTokens.isEmpty()) {
-            log.debug("[TokenService] No valid tokens to revoke for user ID: {}", user.getId());
-            return;
-        }
+        List<byte[]> revokedHashes = tokenRepository.revokeAllByUser(user.getId());
 
-        log.info("[TokenService] Revoking {} valid tokens for user ID: {}", validUserTokens.size(), user.getId());
+        log.info("[TokenService] Revoked {} valid tokens for user ID: {}", revokedHashes.size(), user.getId());
 
-        validUserTokens.forEach(token -> {
-            token.revoke();
-            cacheRepository.delete(token.getToken());
-            log.trace("[TokenService] Revoked token with user: {}", token.getUser());
-        });
-
-        tokenRepository.saveAll(validUserTokens);
-        log.debug("[TokenService] Revoked tokens saved in database for user ID: {}", user.getId());
+        // Only token digests are persisted; the user's session index covers every token held in Redis
+        cacheRepository.deleteAllForUser(user.getId().toString());
+        if (revocationMode == RevocationMode.DENYLIST) {
+            // Tokens are issued with second precision, so the cutoff only denies tokens issued before this second
+            Instant now = Instant.now();
+            cacheRepository.denyIssuedBefore(user.getId().toString(), now, now.plusMillis(refreshTokenExpiration));
+        }
+        verifiedTokenCache.invalidateAllDigests(revokedHashes);
+        log.debug("[TokenService] Revoked tokens removed from cache for user ID: {}", user.getId());
     }
 
+    /**
+     * Removes a revoked token from the Redis cache and from the local verified-token cache. In
+     * {@link RevocationMode#DENYLIST} mode a JWT's {@code jti} is denylisted for the rest of its lifetime.
+     *
+     * @param token The raw token being revoked.
+     */
     public void deleteTokenFromCache(String token) {
         cacheRepository.delete(token);
+        if (revocationMode == RevocationMode.DENYLIST && TokenFormat.of(token) == TokenFormat.JWT) {
+            denyJwt(token);
+        }
+        verifiedTokenCache.invalidate(token);
         log.debug("[TokenService] Token deleted from cache: {}", token);
     }
 
+    private void denyJwt(String token) {
+        try {
+            VerifiedToken jwt = jwtProvider.parse(token);
+            if (jwt.id() != null) {
+                cacheRepository.deny(jwt.id(), jwt.userId(), jwt.expiresAt());
+            } else {
+                // Issued before tokens carried a jti: fall back to denying everything issued to the user so far
+                Instant now = Instant.now();
+                cacheRepository.denyIssuedBefore(jwt.userId(), now, now.plusMillis(refreshTokenExpiration));
+            }
+        } catch (JwtException e) {
+            log.debug("[TokenService] Revoked token is expired or invalid, nothing to denylist");
+        }
+    }
+
 }
\ No newline at end of file
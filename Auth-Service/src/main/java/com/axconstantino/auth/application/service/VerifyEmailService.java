@@ -6,7 +6,7 @@ import com.axconstantino.auth.domain.exception.UserNotFoundException;
 import com.axconstantino.auth.domain.model.User;
 import com.axconstantino.auth.domain.repository.UserRepository;
 import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
-import io.jsonwebtoken.Claims;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -49,22 +49,22 @@ public class VerifyEmailService implements VerifyEmail {
     public void execute(String token) {
         log.info("Starting email verification process.");
 
-        // Step 1: Extract and validate token claims
-        Claims claims = jwtProvider.extractAllClaims(token);
+        // Step 1: Verify the token once and read its claims
+        VerifiedToken verifiedToken = jwtProvider.parse(token);
 
-        if (jwtProvider.isTokenExpired(token)) {
+        if (verifiedToken.isExpired()) {
             log.warn("Email verification token has expired.");
             throw new InvalidOrExpiredTokenException("Token expired");
         }
 
-        String type = claims.get("type", String.class);
-        if (!"email-verification".equals(type)) {
+        String type = verifiedToken.type();
+        if (!JwtProvider.EMAIL_VERIFICATION_TOKEN_TYPE.equals(type)) {
             log.warn("Invalid token type received: {}", type);
             throw new InvalidOrExpiredTokenException("Invalid token type");
         }
 
-        UUID userId = UUID.fromString(claims.get("userId", String.class));
-        String email = claims.getSubject();
+        UUID userId = verifiedToken.userUuid();
+        String email = verifiedToken.subject();
         String redisKey = "email-verification:" + userId + ":" + token;
 
         // Step 2: Check token presence in Redis
@@ -74,7 +74,7 @@ public class VerifyEmailService implements VerifyEmail {
         }
 
         // Step 3: Retrieve and verify user
-        User user = repository.findById(userId)
+        User user = repository.findWithCredentialsById(userId)
                 .orElseThrow(() -> {
                     log.error("User not found with ID: {}", userId);
                     return new UserNotFoundException("User not found");
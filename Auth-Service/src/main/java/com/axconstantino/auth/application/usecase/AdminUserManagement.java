@@ -1,5 +1,6 @@
 package com.axconstantino.auth.application.usecase;
 
+import com.axconstantino.auth.application.dto.CursorSlice;
 import com.axconstantino.auth.domain.model.Role;
 import com.axconstantino.auth.domain.model.User;
 import org.springframework.data.domain.Page;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 public interface AdminUserManagement {
     Page<User> listAllUsers(Pageable pageable);
+    CursorSlice<User> listUsers(String cursor, int size);
     User getUserDetails(UUID userId);
     void deactivateUser(UUID userId);
     void activateUser(UUID userId);
@@ -0,0 +1,10 @@
+package com.axconstantino.auth.application.usecase;
+
+import com.axconstantino.auth.application.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportUsers {
+    void execute(ExportFormat format, OutputStream out) throws IOException;
+}
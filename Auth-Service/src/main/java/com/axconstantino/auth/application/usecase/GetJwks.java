@@ -0,0 +1,7 @@
+package com.axconstantino.auth.application.usecase;
+
+import com.axconstantino.auth.application.dto.JwksResponse;
+
+public interface GetJwks {
+    JwksResponse execute();
+}
@@ -0,0 +1,7 @@
+package com.axconstantino.auth.application.usecase;
+
+import com.axconstantino.auth.application.dto.TokenIntrospectionResponse;
+
+public interface IntrospectToken {
+    TokenIntrospectionResponse execute(String token);
+}
@@ -0,0 +1,10 @@
+package com.axconstantino.auth.application.usecase;
+
+import com.axconstantino.auth.application.dto.SessionResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ListSessions {
+    List<SessionResponse> execute(UUID userId);
+}
@@ -0,0 +1,7 @@
+package com.axconstantino.auth.application.usecase;
+
+import java.util.UUID;
+
+public interface RevokeSession {
+    void execute(UUID userId, String sessionId);
+}
@@ -41,6 +41,17 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.LOCKED, "Too many failed login attempts");
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(TokenStoreUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleTokenStoreUnavailable(TokenStoreUnavailableException ex) {
+        log.warn("[GlobalExceptionHandler] {}", ex.getMessage());
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service temporarily unavailable, try again later");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
         String error = ex.getBindingResult().getFieldErrors().stream()
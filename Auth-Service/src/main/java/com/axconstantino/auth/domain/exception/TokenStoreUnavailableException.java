@@ -0,0 +1,11 @@
+package com.axconstantino.auth.domain.exception;
+
+/**
+ * Thrown when new tokens cannot be accepted for persistence, such as when the write-behind queue is full.
+ */
+public class TokenStoreUnavailableException extends RuntimeException {
+
+    public TokenStoreUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.axconstantino.auth.domain.model;
+
+/**
+ * Outcome of moving one batch of soft-deleted users to the archive.
+ *
+ * @param users  the number of users archived
+ * @param roles  the number of role assignments archived with them
+ * @param tokens the number of tokens archived with them
+ */
+public record ArchivedUsers(int users, int roles, int tokens) {}
@@ -5,6 +5,7 @@ import java.time.Instant;
 public class Token {
 
     private final String token;
+    private final byte[] tokenHash;
     private final TokenType type;
     private final Instant issuedAt;
     private final Instant expiresAt;
@@ -13,9 +14,10 @@ public class Token {
     private boolean active;
     private User user;
 
-    public Token(String token, TokenType type, Instant issuedAt, Instant expiresAt,
+    public Token(String token, byte[] tokenHash, TokenType type, Instant issuedAt, Instant expiresAt,
                  String ipAddress, String userAgent, boolean active, User user) {
         this.token = token;
+        this.tokenHash = tokenHash;
         this.type = type;
         this.issuedAt = issuedAt;
         this.expiresAt = expiresAt;
@@ -25,7 +27,14 @@ public class Token {
         this.user = user;
     }
 
+    /**
+     * @return the raw token, only known when it was just issued; it is not persisted
+     */
     public String getToken() { return token; }
+    /**
+     * @return the SHA-256 digest of the token, which identifies it in storage
+     */
+    public byte[] getTokenHash() { return tokenHash; }
     public TokenType getTokenType() { return type; }
     public Instant getIssuedAt() { return issuedAt; }
     public Instant getExpiresAt() { return expiresAt; }
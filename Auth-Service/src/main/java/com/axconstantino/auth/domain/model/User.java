@@ -8,6 +8,9 @@ public class User {
     private UUID id;
     private String userName;
     private String email;
+    /**
+     * Null when the user was read from the user cache, which never holds credentials.
+     */
     private String password;
     private final Set<Role> roles;
     private boolean active;
@@ -16,14 +19,15 @@ public class User {
     private final Set<Token> tokens;
 
     public static User register(String userName, String email, String password, Set<Role> roles) {
-        return new User(UUID.randomUUID(), userName, email, password, roles != null ? roles : new HashSet<>(), true, false, null, new HashSet<>());
+        return new User(TimeOrderedUuid.next(), userName, email, password, roles != null ? roles : new HashSet<>(), true, false, null, new HashSet<>());
     }
 
-    public User(UUID id, String name, String email, String password, Set<Role> roles,
+    public User(UUID id, String userName, String email, String password, Set<Role> roles,
                 boolean active, boolean emailVerified, Instant deletedAt, Set<Token> tokens) {
         this.id = id;
+        this.userName = userName;
         this.email = Objects.requireNonNull(email);
-        this.password = Objects.requireNonNull(password);
+        this.password = password;
         this.roles = new HashSet<>(Objects.requireNonNull(roles));
         this.active = active;
         this.emailVerified = emailVerified;
@@ -87,6 +91,6 @@ public class User {
     }
 
     public void removeToken(String tokenValue) {
-        tokens.removeIf(token -> token.getToken().equals(tokenValue));
+        tokens.removeIf(token -> tokenValue.equals(token.getToken()));
     }
 }
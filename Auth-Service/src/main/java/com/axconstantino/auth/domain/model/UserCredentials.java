@@ -0,0 +1,32 @@
+package com.axconstantino.auth.domain.model;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The subset of a {@link User} needed to authenticate them and issue their tokens.
+ * <p>
+ * It is loaded without the user's token history, which is what makes it cheap enough for the login path.
+ * </p>
+ *
+ * @param passwordHash the encoded password, as stored
+ */
+public record UserCredentials(
+        UUID id,
+        String userName,
+        String email,
+        String passwordHash,
+        boolean active,
+        boolean emailVerified,
+        Set<Role> roles
+) {
+
+    /**
+     * @return a {@link User} carrying these credentials and an empty token set, enough to issue tokens for;
+     * it must not be saved through {@code UserRepository}, since that would replace the user's tokens
+     */
+    public User toUser() {
+        return new User(id, userName, email, passwordHash, roles, active, emailVerified, null, new HashSet<>());
+    }
+}
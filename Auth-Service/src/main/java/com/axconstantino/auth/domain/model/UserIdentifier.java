@@ -0,0 +1,9 @@
+package com.axconstantino.auth.domain.model;
+
+/**
+ * Identifiers that must be unique across users.
+ */
+public enum UserIdentifier {
+    EMAIL,
+    USER_NAME
+}
@@ -0,0 +1,16 @@
+package com.axconstantino.auth.domain.model;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Read-only view of a {@link User} without credentials or tokens, as listed in bulk exports.
+ */
+public record UserSummary(
+        UUID id,
+        String userName,
+        String email,
+        Set<Role> roles,
+        boolean active,
+        boolean emailVerified
+) {}
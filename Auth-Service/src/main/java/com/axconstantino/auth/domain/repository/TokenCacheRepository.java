@@ -1,14 +1,29 @@
 package com.axconstantino.auth.domain.repository;
 
-import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.infrastructure.redis.model.TokenData;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 public interface TokenCacheRepository {
     void save(TokenData tokenData, long ttl, TimeUnit unit);
-    Optional<Token> find(String token);
+    void saveAll(List<TokenData> tokens);
+    Optional<TokenData> find(String token);
+    List<TokenData> findSessions(String userId);
     void delete(String token);
-    void deleteAllForUser(String userId);
+    void deleteAll(Collection<String> tokens);
+
+    /**
+     * Removes every token of the user.
+     *
+     * @return the tokens removed
+     */
+    List<String> deleteAllForUser(String userId);
+
+    void deny(String tokenId, String userId, Instant expiresAt);
+    void denyIssuedBefore(String userId, Instant cutoff, Instant until);
+    boolean isDenied(String tokenId, String userId, Instant issuedAt);
 }
@@ -2,6 +2,7 @@ package com.axconstantino.auth.domain.repository;
 
 import com.axconstantino.auth.domain.model.Token;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,5 +11,32 @@ public interface TokenRepository {
     Optional<Token> findByToken(String token);
     List<Token> findAllValidTokensByUser(UUID userId);
     void saveAll(List<Token> tokens);
+
+    /**
+     * Revokes all of a user's active, unexpired tokens without loading them.
+     *
+     * @return the SHA-256 digest of each token revoked, empty if there was none
+     */
+    List<byte[]> revokeAllByUser(UUID userId);
+
+    /**
+     * Revokes a single token without loading it.
+     *
+     * @return true if the token was active and is now revoked, false if it is unknown or was already revoked
+     */
+    boolean revoke(String token);
+
     void save(Token token);
+
+    /**
+     * Deletes a batch of the oldest tokens that expired before the cutoff.
+     *
+     * @return the number of tokens deleted, less than {@code limit} once nothing is left to delete
+     */
+    int deleteExpiredBefore(Instant cutoff, int limit);
+
+    /**
+     * @return the earliest expiration instant among stored tokens, empty if there is none
+     */
+    Optional<Instant> findEarliestExpiry();
 }
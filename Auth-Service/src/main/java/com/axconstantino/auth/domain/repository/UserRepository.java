@@ -1,25 +1,98 @@
 package com.axconstantino.auth.domain.repository;
 
+import com.axconstantino.auth.domain.model.ArchivedUsers;
 import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.model.UserCredentials;
+import com.axconstantino.auth.domain.model.UserIdentifier;
+import com.axconstantino.auth.domain.model.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserRepository {
+    /**
+     * Looks the user up, possibly from a cache: the user may then carry no password hash, and cannot be saved.
+     */
     Optional<User> findById(UUID id);
 
+    /**
+     * Looks the user up, possibly from a cache: the user may then carry no password hash, and cannot be saved.
+     */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Loads the user with their password hash, always from the store. Use it to check the user's password, and to
+     * load a user that is modified and saved.
+     */
+    Optional<User> findWithCredentialsById(UUID id);
+
+    /**
+     * Loads only what is needed to authenticate the user, without their tokens.
+     */
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
     boolean existsByEmail(String email);
 
     boolean existsByUserName(String userName);
 
+    /**
+     * Checks in a single lookup which of the given identifiers already belong to a user.
+     *
+     * @return the identifiers already taken, empty if both are free
+     */
+    Set<UserIdentifier> findTakenIdentifiers(String email, String userName);
+
     Page<User> findAll(Pageable pageable);
 
+    /**
+     * Keyset pagination over users in user name order. Users are returned without their tokens.
+     *
+     * @param afterUserName the user name to start after, null to start from the first user
+     * @param limit         the maximum number of users to return
+     */
+    List<User> findAllByUserNameAfter(String afterUserName, int limit);
+
+    /**
+     * Streams every live user without loading credentials or tokens. The stream holds a database cursor: it
+     * must be consumed inside a transaction and closed.
+     */
+    Stream<UserSummary> streamAllSummaries();
+
+    /**
+     * Saves the user and writes it to the database immediately. The user must have been loaded with
+     * {@link #findWithCredentialsById} or just created.
+     *
+     * @throws com.axconstantino.auth.domain.exception.DuplicateCredentialsException if the email or user name
+     *         belongs to another user, as detected by the database's unique constraints
+     */
     void save(User user);
 
     void deleteById(UUID id);
+
+    /**
+     * Moves a batch of the users soft-deleted longest before the cutoff to the archive, together with their
+     * roles and tokens.
+     *
+     * @return what was archived, fewer than {@code limit} users once nothing is left to archive
+     */
+    ArchivedUsers archiveDeletedBefore(Instant cutoff, int limit);
+
+    /**
+     * @return the earliest deletion instant among soft-deleted users still in the live table, empty if there is none
+     */
+    Optional<Instant> findEarliestDeletion();
+
+    /**
+     * Permanently deletes a batch of the users archived longest before the cutoff.
+     *
+     * @return the number of users deleted, less than {@code limit} once nothing is left to delete
+     */
+    int purgeArchivedBefore(Instant cutoff, int limit);
 }
 
@@ -0,0 +1,47 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import com.axconstantino.auth.infrastructure.token.TokenFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Access token format selection bound from the {@code auth.access-token} prefix.
+ * <p>
+ * Clients identify themselves with the {@code X-Client-Type} header; its value (case-insensitive) selects the
+ * format, and unknown or missing client types get {@code default-format}:
+ * <pre>
+ * auth:
+ *   access-token:
+ *     default-format: JWT
+ *     client-formats:
+ *       web: OPAQUE
+ *       mobile: OPAQUE
+ * </pre>
+ * </p>
+ *
+ * @param defaultFormat format used when the client type has no explicit mapping, {@link TokenFormat#JWT} if unset
+ * @param clientFormats format per client type
+ */
+@ConfigurationProperties(prefix = "auth.access-token")
+public record AccessTokenProperties(TokenFormat defaultFormat, Map<String, TokenFormat> clientFormats) {
+
+    public AccessTokenProperties {
+        defaultFormat = defaultFormat != null ? defaultFormat : TokenFormat.JWT;
+        clientFormats = clientFormats == null ? Map.of() : clientFormats.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(e -> e.getKey().toLowerCase(Locale.ROOT), Map.Entry::getValue));
+    }
+
+    /**
+     * @param clientType the {@code X-Client-Type} header value, may be null
+     * @return the access token format configured for that client type
+     */
+    public TokenFormat formatFor(String clientType) {
+        if (clientType == null || clientType.isBlank()) {
+            return defaultFormat;
+        }
+        return clientFormats.getOrDefault(clientType.trim().toLowerCase(Locale.ROOT), defaultFormat);
+    }
+}
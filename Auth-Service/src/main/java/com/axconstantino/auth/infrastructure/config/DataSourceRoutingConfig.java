@@ -0,0 +1,68 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import com.axconstantino.auth.infrastructure.persistence.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas when at least one is configured under
+ * {@code auth.datasource.replicas}; without replicas Spring Boot's single data source is used as before.
+ * <p>
+ * The exposed data source is a {@link LazyConnectionDataSourceProxy} over the primary. Connections are only
+ * fetched when the first statement runs, by which time {@code @Transactional(readOnly = true)} has marked them
+ * read-only, and read-only connections are taken from a {@link ReplicaRoutingDataSource}. Everything else,
+ * including Flyway migrations, goes to the primary.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "auth.datasource.replicas[0]", name = "url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaDataSourceProperties properties) {
+        List<DataSource> replicas = properties.replicas().stream()
+                .map(DataSourceRoutingConfig::replicaDataSource)
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    private static DataSource replicaDataSource(ReplicaDataSourceProperties.Replica replica) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(replica.url());
+        dataSource.setUsername(replica.username());
+        dataSource.setPassword(replica.password());
+        dataSource.setReadOnly(true);
+        if (replica.maximumPoolSize() != null) {
+            dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+        }
+        return dataSource;
+    }
+}
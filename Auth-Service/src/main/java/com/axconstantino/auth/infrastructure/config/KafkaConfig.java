@@ -29,6 +29,8 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        // The outbox relay sends a whole batch at once: a short linger packs it into few produce requests
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
 
         return new DefaultKafkaProducerFactory<>(configProps);
 
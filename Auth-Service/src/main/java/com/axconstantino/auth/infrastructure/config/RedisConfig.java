@@ -1,6 +1,7 @@
 package com.axconstantino.auth.infrastructure.config;
 
 import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import com.axconstantino.auth.infrastructure.redis.serializer.RedisTokenEntityCodec;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -22,7 +23,7 @@ public class RedisConfig {
         template.setConnectionFactory(connectionFactory);
 
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(new RedisTokenEntityCodec());
 
         return template;
     }
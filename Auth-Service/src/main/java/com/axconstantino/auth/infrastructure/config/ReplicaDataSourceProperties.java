@@ -0,0 +1,33 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Read replicas bound from the {@code auth.datasource} prefix. The primary stays configured through the usual
+ * {@code spring.datasource} properties:
+ * <pre>
+ * auth:
+ *   datasource:
+ *     replicas:
+ *       - url: jdbc:postgresql://replica-1:5432/auth
+ *         username: auth_ro
+ *         password: secret
+ *         maximum-pool-size: 20
+ * </pre>
+ *
+ * @param replicas the replicas read-only transactions are spread over, in round-robin order
+ */
+@ConfigurationProperties(prefix = "auth.datasource")
+public record ReplicaDataSourceProperties(List<Replica> replicas) {
+
+    public ReplicaDataSourceProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+    }
+
+    /**
+     * @param maximumPoolSize connection pool size for this replica, the Hikari default if unset
+     */
+    public record Replica(String url, String username, String password, Integer maximumPoolSize) {}
+}
@@ -0,0 +1,12 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs declared with {@link org.springframework.scheduling.annotation.Scheduled}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
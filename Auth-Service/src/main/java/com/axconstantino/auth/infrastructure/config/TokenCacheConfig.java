@@ -0,0 +1,47 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import com.axconstantino.auth.infrastructure.persistence.mapper.RedisTokenMapper;
+import com.axconstantino.auth.infrastructure.redis.adapter.NearCachedTokenCacheRepository;
+import com.axconstantino.auth.infrastructure.redis.adapter.TokenCacheRedisImpl;
+import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Wires the Redis token store behind a local near-cache, and subscribes that cache to the invalidations
+ * published by the other nodes.
+ */
+@Configuration
+public class TokenCacheConfig {
+
+    @Bean
+    public NearCachedTokenCacheRepository tokenCacheRepository(
+            RedisTemplate<String, RedisTokenEntity> redisTokenEntityTemplate,
+            RedisTemplate<String, String> redisStringTemplate,
+            RedisTokenMapper redisTokenMapper,
+            MeterRegistry meterRegistry,
+            @Value("${auth.token-cache.near-cache.max-staleness:PT5S}") Duration maxStaleness,
+            @Value("${auth.token-cache.near-cache.maximum-size:50000}") long maximumSize) {
+        TokenCacheRedisImpl redisStore = new TokenCacheRedisImpl(redisTokenEntityTemplate, redisStringTemplate, redisTokenMapper);
+        return new NearCachedTokenCacheRepository(redisStore, redisStringTemplate, meterRegistry, maxStaleness, maximumSize);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer tokenInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            NearCachedTokenCacheRepository tokenCacheRepository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenCacheRepository,
+                new ChannelTopic(NearCachedTokenCacheRepository.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,64 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.adapter.TokenRepositoryJpaAdapter;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.TokenJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.mapper.TokenJpaMapper;
+import com.axconstantino.auth.infrastructure.redis.adapter.TokenWriteQueue;
+import com.axconstantino.auth.infrastructure.redis.adapter.WriteBehindTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Wires the token store according to {@code auth.token-persistence.mode}:
+ * <ul>
+ *     <li>{@code sync} (default): tokens are written to the database within the request's transaction</li>
+ *     <li>{@code write-behind}: token writes are queued in Redis and written to the database in batches by
+ *     {@link com.axconstantino.auth.infrastructure.token.TokenWriteBehindFlusher}</li>
+ * </ul>
+ */
+@Configuration
+public class TokenPersistenceConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "auth.token-persistence", name = "mode", havingValue = "sync", matchIfMissing = true)
+    public TokenRepositoryJpaAdapter tokenRepository(TokenJpaRepository tokenJpaRepository,
+                                                     UserJpaRepository userJpaRepository,
+                                                     TokenJpaMapper tokenJpaMapper) {
+        return new TokenRepositoryJpaAdapter(tokenJpaRepository, userJpaRepository, tokenJpaMapper);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "auth.token-persistence", name = "mode", havingValue = "write-behind")
+    static class WriteBehind {
+
+        /**
+         * Pending token entries are kept for the refresh token lifetime at most, the longest a token lives.
+         */
+        @Bean
+        public TokenWriteQueue tokenWriteQueue(
+                RedisTemplate<String, String> redisStringTemplate,
+                @Value("${jwt.refresh-token.expiration-time}") long refreshTokenExpiration,
+                @Value("${auth.token-persistence.write-behind.capacity:100000}") long capacity) {
+            return new TokenWriteQueue(redisStringTemplate, Duration.ofMillis(refreshTokenExpiration), capacity);
+        }
+
+        @Bean
+        public WriteBehindTokenRepository tokenRepository(TokenJpaRepository tokenJpaRepository,
+                                                          UserJpaRepository userJpaRepository,
+                                                          TokenJpaMapper tokenJpaMapper,
+                                                          TokenWriteQueue tokenWriteQueue,
+                                                          UserRepository userRepository,
+                                                          MeterRegistry meterRegistry) {
+            TokenRepositoryJpaAdapter store = new TokenRepositoryJpaAdapter(tokenJpaRepository, userJpaRepository, tokenJpaMapper);
+            return new WriteBehindTokenRepository(store, tokenWriteQueue, userRepository, meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.axconstantino.auth.infrastructure.config;
+
+import com.axconstantino.auth.infrastructure.persistence.jpa.adapter.UserRepositoryJpaAdapter;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.mapper.UserJpaMapper;
+import com.axconstantino.auth.infrastructure.persistence.routing.ReadYourWrites;
+import com.axconstantino.auth.infrastructure.redis.adapter.CachingUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Wires the JPA user store behind the two-level user cache, and subscribes that cache to the evictions
+ * published by the other nodes.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    public CachingUserRepository userRepository(
+            UserJpaRepository userJpaRepository,
+            UserJpaMapper userJpaMapper,
+            ReadYourWrites readYourWrites,
+            RedisTemplate<String, String> redisStringTemplate,
+            ObjectMapper redisObjectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${auth.user-cache.local-ttl:PT30S}") Duration localTtl,
+            @Value("${auth.user-cache.redis-ttl:PT10M}") Duration redisTtl,
+            @Value("${auth.user-cache.maximum-size:10000}") long maximumSize) {
+        UserRepositoryJpaAdapter store = new UserRepositoryJpaAdapter(userJpaRepository, userJpaMapper, readYourWrites);
+        return new CachingUserRepository(store, redisStringTemplate, redisObjectMapper, meterRegistry,
+                localTtl, redisTtl, maximumSize);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer userInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            CachingUserRepository userRepository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(userRepository, new ChannelTopic(CachingUserRepository.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
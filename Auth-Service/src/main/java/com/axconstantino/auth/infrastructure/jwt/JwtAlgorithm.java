@@ -0,0 +1,48 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+/**
+ * Asymmetric signature algorithms supported for signing and verifying JWTs.
+ * <p>
+ * The algorithm is selected with the {@code jwt.algorithm} property and determines both the JWS algorithm
+ * and the type of the PEM keys expected by {@link com.axconstantino.auth.infrastructure.config.JwtKeyConfig}.
+ * </p>
+ */
+public enum JwtAlgorithm {
+
+    /** RSASSA-PKCS1-v1_5 with SHA-256, expects RSA keys (2048 bits or more). */
+    RS256("RSA", Jwts.SIG.RS256),
+
+    /** ECDSA on the P-256 curve with SHA-256, expects EC keys on {@code secp256r1}. */
+    ES256("EC", Jwts.SIG.ES256),
+
+    /**
+     * EdDSA, expects Ed25519 keys. Resource servers configured through Spring Security's {@code jws-algorithms}
+     * property, as Profile-Service is, cannot verify it.
+     */
+    EDDSA("Ed25519", Jwts.SIG.EdDSA);
+
+    private final String keyAlgorithm;
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    JwtAlgorithm(String keyAlgorithm, SignatureAlgorithm signatureAlgorithm) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    /**
+     * @return the JCA {@link java.security.KeyFactory} algorithm name used to decode the keys
+     */
+    public String keyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * @return the JWS algorithm used to sign tokens
+     */
+    public SignatureAlgorithm signatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+}
@@ -0,0 +1,20 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * A JWT key pair identified by its {@code kid}.
+ *
+ * @param kid        the key id written to the {@code kid} header of tokens signed with this key
+ * @param algorithm  the signature algorithm the key is used with
+ * @param publicKey  the verification key, published through the JWKS endpoint
+ * @param privateKey the signing key; {@code null} for keys that are only kept to verify tokens already issued
+ */
+public record JwtKey(
+        String kid,
+        JwtAlgorithm algorithm,
+        PublicKey publicKey,
+        PrivateKey privateKey
+) {
+}
@@ -0,0 +1,116 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.Jwks;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable set of the JWT keys currently in use, indexed by {@code kid}.
+ * <p>
+ * Exactly one key is used for signing. Every key, including retired ones still needed to verify tokens that
+ * have not expired yet, can be selected in O(1) from the {@code kid} header of an incoming token.
+ * </p>
+ * <p>
+ * The JSON Web Key Set served to resource servers and its strong ETag are computed once, when the ring is
+ * built. Keys are sorted by {@code kid} so every node produces byte-identical output and the same ETag.
+ * </p>
+ */
+public final class JwtKeyRing implements Locator<Key> {
+
+    private final JwtKey signingKey;
+    private final Map<String, JwtKey> keysById;
+    private final String jwksJson;
+    private final String jwksEtag;
+
+    public JwtKeyRing(List<JwtKey> keys, String signingKeyId) {
+        Map<String, JwtKey> byId = new HashMap<>();
+        for (JwtKey key : keys) {
+            if (byId.put(key.kid(), key) != null) {
+                throw new IllegalStateException("Duplicate JWT key id: " + key.kid());
+            }
+        }
+        JwtKey signing = byId.get(signingKeyId);
+        if (signing == null || signing.privateKey() == null) {
+            throw new IllegalStateException("JWT signing key '" + signingKeyId + "' is not configured with a private key");
+        }
+
+        this.signingKey = signing;
+        this.keysById = Map.copyOf(byId);
+        this.jwksJson = keys.stream()
+                .sorted(Comparator.comparing(JwtKey::kid))
+                .map(JwtKeyRing::toJwkJson)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        this.jwksEtag = "\"" + TokenDigest.sha256Base64Url(jwksJson) + "\"";
+    }
+
+    /**
+     * @return the key new tokens are signed with
+     */
+    public JwtKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return the public JSON Web Key Set ({@code {"keys":[...]}}) of every key in the ring
+     */
+    public String jwksJson() {
+        return jwksJson;
+    }
+
+    /**
+     * @return the quoted strong ETag of {@link #jwksJson()}
+     */
+    public String jwksEtag() {
+        return jwksEtag;
+    }
+
+    /**
+     * Selects the verification key for a token from its {@code kid} header.
+     * Tokens issued before key ids were introduced carry no {@code kid} and are verified with the signing key.
+     *
+     * @param header the token header
+     * @return the public key to verify the token with
+     * @throws InvalidKeyException if the {@code kid} is unknown
+     */
+    @Override
+    public Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            return signingKey.publicKey();
+        }
+        JwtKey key = keysById.get(kid);
+        if (key == null) {
+            throw new InvalidKeyException("Unknown JWT key id: " + kid);
+        }
+        return key.publicKey();
+    }
+
+    /**
+     * Computes the RFC 7638 thumbprint of a public key, used as {@code kid} when none is configured.
+     *
+     * @param key the public key
+     * @return the base64url encoded SHA-256 thumbprint
+     */
+    public static String thumbprint(PublicKey key) {
+        return Jwks.builder().key(key).idFromThumbprint().build().getId();
+    }
+
+    private static String toJwkJson(JwtKey key) {
+        return Jwks.json(Jwks.builder()
+                .key(key.publicKey())
+                .id(key.kid())
+                .algorithm(key.algorithm().signatureAlgorithm().getId())
+                .build());
+    }
+}
@@ -3,28 +3,33 @@ package com.axconstantino.auth.infrastructure.jwt;
 import com.axconstantino.auth.domain.model.Role;
 import com.axconstantino.auth.domain.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
 
-import java.security.PrivateKey;
-import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
- * Component responsible for generating, parsing and validating JWT tokens using RSA (RS256).
+ * Component responsible for generating, parsing and validating JWT tokens.
  * <p>
  * This provider supports access tokens, refresh tokens, and email verification tokens.
- * It uses asymmetric encryption (public/private key pair) for secure signing and verification.
+ * It uses asymmetric signatures (public/private key pair) for secure signing and verification. Tokens are signed
+ * with the {@link JwtKeyRing} signing key and carry its {@code kid} header, which selects the verification key
+ * so keys can be rotated without invalidating tokens already issued. Every token carries a random {@code jti},
+ * which identifies it for revocation without storing the whole token.
  * </p>
  */
 @Slf4j
@@ -32,8 +37,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class JwtProvider {
 
-    private final PrivateKey privateKey;
-    private final PublicKey publicKey;
+    private final JwtKeyRing keyRing;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Value("${jwt.issuer}")
     private String issuer;
@@ -44,67 +49,74 @@ public class JwtProvider {
     @Value("${jwt.refresh-token.expiration-time}")
     private long refreshTokenExpiration;
 
+    private JwtParser parser;
+
     /**
-     * Extracts the subject (typically the user's email) from the JWT.
-     *
-     * @param token the JWT
-     * @return the subject (username/email)
+     * Claim naming the purpose of a token that is not an access token; access tokens never carry it.
      */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    public static final String TYPE_CLAIM = "type";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    public static final String EMAIL_VERIFICATION_TOKEN_TYPE = "email-verification";
+
+    private static final int TOKEN_ID_BYTES = 16;
+    private static final Base64.Encoder TOKEN_ID_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private final SecureRandom secureRandom = new SecureRandom();
 
     /**
-     * Extracts the user ID embedded in the token.
-     *
-     * @param token the JWT
-     * @return user ID as String
+     * Builds the {@link JwtParser} once; it is immutable and thread-safe, so every verification reuses it.
      */
-    public String extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", String.class));
+    @PostConstruct
+    void initParser() {
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
     }
 
     /**
-     * Extracts the issued date from the JWT.
+     * Parses and verifies the JWT exactly once and returns a typed handle over its claims.
+     * <p>
+     * Verification results are memoized in the {@link VerifiedTokenCache} until the token expires, so a token
+     * presented repeatedly only pays for the signature check the first time.
+     * </p>
      *
      * @param token the JWT
-     * @return issue date
+     * @return the verified token
+     * @throws io.jsonwebtoken.JwtException if the signature is invalid, the token is malformed or expired
      */
-    public Date extractIssuedAt(String token) {
-        return extractClaim(token, Claims::getIssuedAt);
+    public VerifiedToken parse(String token) {
+        return verifiedTokenCache.get(token, jwt -> toVerifiedToken(jwt, extractAllClaims(jwt)));
     }
 
     /**
      * Generates a JWT access token for the authenticated user.
      *
      * @param user the user entity
-     * @return JWT access token
+     * @return verified handle over the signed JWT access token
      */
-    public String generateAccessToken(User user) {
+    public VerifiedToken generateAccessToken(User user) {
         Map<String, Object> extraClaims = new HashMap<>();
-        String roles = user.getRoles().stream()
-                .map(Role::name)
-                .collect(Collectors.joining(","));
-        extraClaims.put("roles", roles);
+        extraClaims.put("roles", rolesClaim(user));
         extraClaims.put("userId", user.getId().toString());
         extraClaims.put("username", user.getUserName());
 
-        String token = buildToken(extraClaims, user.getEmail(), accessTokenExpiration);
+        VerifiedToken token = buildToken(extraClaims, user.getEmail(), accessTokenExpiration);
         log.info("Access token generated for user: {}", user.getEmail());
         return token;
     }
 
     /**
-     * Generates a JWT refresh token for the user.
+     * Generates a JWT refresh token for the user. It carries a {@code type} claim, so it cannot pass for an
+     * access token.
      *
      * @param user the user entity
-     * @return JWT refresh token
+     * @return verified handle over the signed JWT refresh token
      */
-    public String generateRefreshToken(User user) {
+    public VerifiedToken generateRefreshToken(User user) {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("userId", user.getId().toString());
+        extraClaims.put(TYPE_CLAIM, REFRESH_TOKEN_TYPE);
 
-        String token = buildToken(extraClaims, user.getEmail(), refreshTokenExpiration);
+        VerifiedToken token = buildToken(extraClaims, user.getEmail(), refreshTokenExpiration);
         log.info("Refresh token generated for user: {}", user.getEmail());
         return token;
     }
@@ -115,14 +127,14 @@ public class JwtProvider {
      * @param email      the user's email
      * @param userId     the user's ID
      * @param expiration expiration time in milliseconds
-     * @return email verification token
+     * @return verified handle over the email verification token
      */
-    public String generateEmailVerificationToken(String email, UUID userId, long expiration) {
+    public VerifiedToken generateEmailVerificationToken(String email, UUID userId, long expiration) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId.toString());
-        claims.put("type", "email-verification");
+        claims.put(TYPE_CLAIM, EMAIL_VERIFICATION_TOKEN_TYPE);
 
-        String token = buildToken(claims, email, expiration);
+        VerifiedToken token = buildToken(claims, email, expiration);
         log.info("Email verification token generated for email: {}", email);
         return token;
     }
@@ -130,55 +142,16 @@ public class JwtProvider {
     /**
      * Validates the token against the provided user.
      *
-     * @param token the JWT
+     * @param token the verified JWT
      * @param user  the user entity
      * @return true if valid, false otherwise
      */
-    public boolean isTokenValid(String token, User user) {
-        try {
-            final String username = extractUsername(token);
-            boolean isValid = username.equals(user.getEmail()) && !isTokenExpired(token);
-            if (!isValid) {
-                log.warn("Token is invalid or expired for user: {}", user.getEmail());
-            }
-            return isValid;
-        } catch (Exception e) {
-            log.error("Token validation failed: {}", e.getMessage(), e);
-            return false;
+    public boolean isTokenValid(VerifiedToken token, User user) {
+        boolean isValid = user.getEmail().equals(token.subject()) && !token.isExpired();
+        if (!isValid) {
+            log.warn("Token is invalid or expired for user: {}", user.getEmail());
         }
-    }
-
-    /**
-     * Checks if the token has expired.
-     *
-     * @param token the JWT
-     * @return true if expired
-     */
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extracts the expiration date from the token.
-     *
-     * @param token the JWT
-     * @return expiration date
-     */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    /**
-     * Extracts a specific claim using the provided resolver function.
-     *
-     * @param token          the JWT
-     * @param claimsResolver resolver for extracting a specific claim
-     * @param <T>            the type of the claim
-     * @return the extracted claim
-     */
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return isValid;
     }
 
     /**
@@ -190,11 +163,7 @@ public class JwtProvider {
      */
     public Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(publicKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
             log.error("Failed to extract claims from token: {}", e.getMessage(), e);
             throw e;
@@ -202,24 +171,79 @@ public class JwtProvider {
     }
 
     /**
-     * Builds a signed JWT token using RS256 algorithm.
+     * Renders the user's roles the way the {@code roles} claim carries them.
+     *
+     * @param user the user entity
+     * @return the comma separated role names
+     */
+    public static String rolesClaim(User user) {
+        return user.getRoles().stream()
+                .map(Role::name)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Builds a JWT token signed with the current signing key of the {@link JwtKeyRing}.
      *
      * @param extraClaims custom claims to include in the token
      * @param subject     token subject (typically user's email)
      * @param expiration  expiration in milliseconds
-     * @return signed JWT string
+     * @return verified handle over the signed JWT, built from the claims without re-parsing it
      */
-    private String buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
+    private VerifiedToken buildToken(Map<String, Object> extraClaims, String subject, long expiration) {
+        // JWT dates have second precision, truncate so the handle matches what parse() would return
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant expiryDate = now.plusMillis(expiration).truncatedTo(ChronoUnit.SECONDS);
+
+        JwtKey signingKey = keyRing.signingKey();
+        String jti = newTokenId();
 
-        return Jwts.builder()
+        String token = Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .claims(extraClaims)
+                .id(jti)
                 .subject(subject)
                 .issuer(issuer)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(privateKey, SignatureAlgorithm.RS256)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(expiryDate))
+                .signWith(signingKey.privateKey(), signingKey.algorithm().signatureAlgorithm())
                 .compact();
+
+        return new VerifiedToken(
+                token,
+                jti,
+                subject,
+                (String) extraClaims.get("userId"),
+                (String) extraClaims.get(TYPE_CLAIM),
+                (String) extraClaims.get("roles"),
+                now,
+                expiryDate
+        );
+    }
+
+    /**
+     * @return a random 128-bit {@code jti}, base64url encoded to a fixed 22 characters
+     */
+    private String newTokenId() {
+        byte[] bytes = new byte[TOKEN_ID_BYTES];
+        secureRandom.nextBytes(bytes);
+        return TOKEN_ID_ENCODER.encodeToString(bytes);
+    }
+
+    private VerifiedToken toVerifiedToken(String token, Claims claims) {
+        return new VerifiedToken(
+                token,
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get(TYPE_CLAIM, String.class),
+                claims.get("roles", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 }
@@ -0,0 +1,57 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable handle for a JWT whose signature has already been verified (or that was just signed) by {@link JwtProvider},
+ * or for an opaque access token just issued by {@link com.axconstantino.auth.infrastructure.token.AccessTokenIssuer}.
+ * <p>
+ * It exposes the claims used by the application services through typed accessors, so a token is parsed
+ * once and then passed around instead of being re-parsed for every claim.
+ * </p>
+ *
+ * @param value     the compact JWT string, or the opaque token
+ * @param id        the {@code jti} claim, null for opaque tokens and for JWTs issued before it was added
+ * @param subject   the token subject (the user's email)
+ * @param userId    the {@code userId} claim
+ * @param type      the {@code type} claim, present on every token other than access tokens (refresh, email verification)
+ * @param roles     the comma separated {@code roles} claim, only present on access tokens
+ * @param issuedAt  the {@code iat} claim
+ * @param expiresAt the {@code exp} claim
+ */
+public record VerifiedToken(
+        String value,
+        String id,
+        String subject,
+        String userId,
+        String type,
+        String roles,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    /**
+     * @return the {@code userId} claim as a {@link UUID}
+     */
+    public UUID userUuid() {
+        return UUID.fromString(userId);
+    }
+
+    /**
+     * Access tokens carry no {@code type} claim and always carry roles; the roles check also rules out refresh
+     * tokens issued before refresh tokens were given a type.
+     *
+     * @return true if this is an access token
+     */
+    public boolean isAccessToken() {
+        return type == null && roles != null;
+    }
+
+    /**
+     * @return true if the token's expiration instant has already passed
+     */
+    public boolean isExpired() {
+        return expiresAt != null && Instant.now().isAfter(expiresAt);
+    }
+}
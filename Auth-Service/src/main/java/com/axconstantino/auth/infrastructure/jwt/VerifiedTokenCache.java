@@ -0,0 +1,102 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, in-process cache of already verified JWTs.
+ * <p>
+ * The same access token is typically presented many times during its lifetime. Caching the verification
+ * result avoids paying for the RSA signature check on every presentation. Entries are:
+ * <ul>
+ *     <li>keyed by the SHA-256 digest of the token, never by the raw token</li>
+ *     <li>evicted no later than the token's {@code exp} claim</li>
+ *     <li>invalidated immediately when the token is revoked</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Hit, miss and eviction counters are published through Micrometer under the cache name {@code jwt.verified}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwt.verified";
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.verification-cache.maximum-size:10000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedToken token) -> timeToExpiry(token)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached verification result for the token, verifying and caching it on a miss.
+     *
+     * @param token    the raw JWT
+     * @param verifier the function performing the actual signature verification
+     * @return the verified token
+     * @throws io.jsonwebtoken.JwtException if the verifier rejects the token; failures are never cached
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(TokenDigest.sha256Base64Url(token), digest -> verifier.apply(token));
+    }
+
+    /**
+     * Removes a revoked token from the cache.
+     *
+     * @param token the raw JWT
+     */
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigest.sha256Base64Url(token));
+        log.trace("[VerifiedTokenCache] Invalidated cached token verification");
+    }
+
+    /**
+     * Removes several revoked tokens from the cache.
+     *
+     * @param tokens the raw JWTs
+     */
+    public void invalidateAll(Collection<String> tokens) {
+        cache.invalidateAll(tokens.stream()
+                .map(TokenDigest::sha256Base64Url)
+                .toList());
+    }
+
+    /**
+     * Removes several revoked tokens from the cache when only their SHA-256 digests are known.
+     *
+     * @param digests the digests, as returned by {@link TokenDigest#sha256(String)}
+     */
+    public void invalidateAllDigests(Collection<byte[]> digests) {
+        cache.invalidateAll(digests.stream()
+                .map(TokenDigest::toBase64Url)
+                .toList());
+    }
+
+    private static Duration timeToExpiry(VerifiedToken token) {
+        if (token.expiresAt() == null) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
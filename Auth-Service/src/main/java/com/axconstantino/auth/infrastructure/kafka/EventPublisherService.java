@@ -1,18 +1,26 @@
 package com.axconstantino.auth.infrastructure.kafka;
 
 import com.axconstantino.auth.domain.event.*;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.OutboxEventEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.OutboxEventJpaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.time.Instant;
+
 /**
  * Service responsible for publishing domain events to Kafka topics.
  * <p>
  * This service abstracts the Kafka publishing logic and provides specific methods for each event type.
- * It ensures all Kafka interactions follow a consistent structure with proper logging and error handling.
+ * Events go through a transactional outbox: they are written to the {@code event_outbox} table in the caller's
+ * transaction, and sent to Kafka by the {@link OutboxRelay} once committed. An event is therefore never published
+ * for a change that was rolled back nor lost for one that was committed, and requests never wait on the broker.
  * </p>
  *
  * <h2>Supported Events</h2>
@@ -20,6 +28,7 @@ import org.springframework.util.Assert;
  *     <li>{@link UserRegisteredEvent}</li>
  *     <li>{@link PasswordResetEvent}</li>
  *     <li>{@link EmailVerificationEvent}</li>
+ *     <li>{@link UserDeletedEvent}</li>
  * </ul>
  *
  * <p>New events can be added easily by creating a new publish method that delegates to {@code publishEvent()}.</p>
@@ -29,7 +38,12 @@ import org.springframework.util.Assert;
 @RequiredArgsConstructor
 public class EventPublisherService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    /**
+     * Same settings as the Kafka {@code JsonSerializer}, so the stored payload is the message the relay sends.
+     */
+    static final ObjectMapper OBJECT_MAPPER = JacksonUtils.enhancedObjectMapper();
+
+    private final OutboxEventJpaRepository outboxRepository;
 
     @Value("${spring.kafka.topic.user-registered}")
     private String userRegisteredTopic;
@@ -84,8 +98,11 @@ public class EventPublisherService {
     }
 
     /**
-     * Generic method that publishes any event to the specified Kafka topic.
-     * Uses the provided key to determine partitioning and logs success or failure accordingly.
+     * Writes the event to the outbox, to be published to the topic by the {@link OutboxRelay}.
+     * <p>
+     * The row joins the caller's transaction, so the event is published if and only if that transaction commits;
+     * without one it is committed on its own. Kafka is never called here.
+     * </p>
      *
      * @param topic the Kafka topic to which the event should be published
      * @param key   the message key used for partitioning (e.g. user ID or email)
@@ -93,30 +110,21 @@ public class EventPublisherService {
      * @param <T>   the type of the event
      */
     private <T> void publishEvent(String topic, String key, T event) {
-        log.info("[Kafka] Preparing to publish event to topic: '{}', key: '{}', payload type: {}",
-                topic, key, event.getClass().getSimpleName());
-
+        String payload;
         try {
-            kafkaTemplate.send(topic, key, event)
-                    .thenAccept(result -> {
-                        log.info("[Kafka] Event published successfully.");
-                        log.debug("[Kafka] Topic: {}, Partition: {}, Offset: {}, Key: {}, Payload: {}",
-                                result.getRecordMetadata().topic(),
-                                result.getRecordMetadata().partition(),
-                                result.getRecordMetadata().offset(),
-                                key,
-                                event);
-                    })
-                    .exceptionally(ex -> {
-                        log.error("[Kafka] Failed to publish event. Topic: {}, Key: {}, Error: {}",
-                                topic, key, ex.getMessage(), ex);
-                        return null;
-                    });
-
-        } catch (Exception ex) {
-            log.error("[Kafka] Unexpected error while publishing event. Topic: {}, Key: {}, Error: {}",
-                    topic, key, ex.getMessage(), ex);
+            payload = OBJECT_MAPPER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event cannot be serialized: " + event.getClass().getName(), e);
         }
+
+        outboxRepository.save(OutboxEventEntity.builder()
+                .topic(topic)
+                .eventKey(key)
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build());
+        log.info("[Kafka] Event written to the outbox for topic: '{}', key: '{}', payload type: {}",
+                topic, key, event.getClass().getSimpleName());
     }
 }
-
@@ -0,0 +1,269 @@
+package com.axconstantino.auth.infrastructure.kafka;
+
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.OutboxEventEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.OutboxBacklogView;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.OutboxEventJpaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job publishing the events of the outbox to Kafka (see {@link EventPublisherService}).
+ * <p>
+ * One node at a time relays, the one whose transaction holds the outbox advisory lock, and sends events in id order.
+ * Each run:
+ * <ul>
+ *     <li>reads the {@code auth.outbox.batch-size} oldest events and sends them all at once, letting the producer
+ *     batch them, then waits up to {@code auth.outbox.send-timeout} for the acknowledgements</li>
+ *     <li>deletes the acknowledged events in the same transaction; once a key has an event that failed, its later
+ *     events are kept as well, so they are sent again after it</li>
+ *     <li>stops after {@code auth.outbox.max-batches-per-run} batches, or at the first batch with a failure</li>
+ * </ul>
+ * Delivery is at least once, and a key's events are in order only best effort:
+ * <ul>
+ *     <li>events kept after a failure, or acknowledged by a relay that died before committing, are sent again; a
+ *     later event of the key acknowledged before the failure is therefore seen twice, once before and once after
+ *     the failed one</li>
+ *     <li>ids are assigned when events are inserted, not committed (see {@link OutboxEventEntity}), so an event
+ *     committed late can be sent after events of its key with a higher id</li>
+ * </ul>
+ * Every message carries its outbox id in the {@value #EVENT_ID_HEADER} header, which consumers deduplicate on;
+ * consumers that depend on the order of a key's events must also tolerate an older event arriving last. Events
+ * whose payload cannot be read back are discarded so they do not block the outbox.
+ * </p>
+ * <p>
+ * Progress is published through Micrometer: {@code auth.outbox.lag} is the time between an event being written and
+ * acknowledged by Kafka, {@code auth.outbox.backlog} the number of events waiting and {@code auth.outbox.oldest.age}
+ * the age of the oldest one, which keeps growing while Kafka is unavailable. {@code auth.outbox.published},
+ * {@code auth.outbox.failed} and {@code auth.outbox.discarded} count events, {@code auth.outbox.batch} times each
+ * batch.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "auth.outbox", name = "enabled", matchIfMissing = true)
+public class OutboxRelay {
+
+    public static final String EVENT_ID_HEADER = "event-id";
+
+    /**
+     * Key of the PostgreSQL advisory lock held by the relaying transaction.
+     */
+    private static final long RELAY_LOCK_ID = 0x6f7574626f78L;
+
+    private static final String EVENT_PACKAGE = "com.axconstantino.auth.domain.event.";
+
+    private final OutboxEventJpaRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration sendTimeout;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter discardedCounter;
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxEventJpaRepository outboxRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${auth.outbox.batch-size:1000}") int batchSize,
+                       @Value("${auth.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                       @Value("${auth.outbox.send-timeout:PT30S}") Duration sendTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sendTimeout = sendTimeout;
+
+        this.publishedCounter = Counter.builder("auth.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.outbox.failed")
+                .description("Outbox events Kafka failed to acknowledge, kept for the next run")
+                .register(meterRegistry);
+        this.discardedCounter = Counter.builder("auth.outbox.discarded")
+                .description("Outbox events discarded because their payload cannot be read")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("auth.outbox.lag")
+                .description("Time between an event being written to the outbox and acknowledged by Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.outbox.batch")
+                .description("Duration of an outbox relay batch")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.backlog", backlog, AtomicLong::get)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("auth.outbox.oldest.age", oldestAgeMillis, AtomicLong::get)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${auth.outbox.initial-delay:PT10S}",
+            fixedDelayString = "${auth.outbox.interval:PT0.5S}")
+    public void relay() {
+        try {
+            if (!measureBacklog()) {
+                return;
+            }
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                BatchResult result = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                if (result == null || !result.complete() || result.read() < batchSize) {
+                    break;
+                }
+            }
+            measureBacklog();
+        } catch (RuntimeException e) {
+            log.warn("[OutboxRelay] Relay failed, outbox events will be retried: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Every node measures the backlog, so the gauges are meaningful wherever they are scraped.
+     *
+     * @return whether events are waiting
+     */
+    private boolean measureBacklog() {
+        OutboxBacklogView view = outboxRepository.findBacklog();
+        backlog.set(view.getEvents());
+        oldestAgeMillis.set(view.getOldestMillis() == null ? 0
+                : Math.max(System.currentTimeMillis() - view.getOldestMillis(), 0));
+        return view.getEvents() > 0;
+    }
+
+    /**
+     * Sends the oldest events and deletes those acknowledged, within the caller's transaction.
+     *
+     * @return what happened to the batch, or null if another node is relaying
+     */
+    private BatchResult relayBatch() {
+        if (!outboxRepository.tryLockForTransaction(RELAY_LOCK_ID)) {
+            return null;
+        }
+        List<OutboxEventEntity> events = outboxRepository.findOldest(batchSize);
+        if (events.isEmpty()) {
+            return new BatchResult(0, true);
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(events.size());
+        for (OutboxEventEntity event : events) {
+            sends.add(send(event));
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> done = new ArrayList<>(events.size());
+        Set<String> blockedKeys = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEventEntity event = events.get(i);
+            CompletableFuture<SendResult<String, Object>> send = sends.get(i);
+            if (send == null) {
+                done.add(event.getId());
+                continue;
+            }
+            boolean acknowledged = await(event, send, deadline);
+            // An event acknowledged after an earlier event of its key failed is kept, and sent again after it
+            if (acknowledged && !blockedKeys.contains(blockKey(event))) {
+                done.add(event.getId());
+                publishedCounter.increment();
+                long lagMillis = Duration.between(event.getCreatedAt(), Instant.now()).toMillis();
+                lagTimer.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+            } else {
+                blockedKeys.add(blockKey(event));
+            }
+        }
+
+        outboxRepository.deleteByIdIn(done);
+        return new BatchResult(events.size(), blockedKeys.isEmpty());
+    }
+
+    /**
+     * @return the pending send, or null if the event was discarded
+     */
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEventEntity event) {
+        Object payload;
+        try {
+            payload = readPayload(event);
+        } catch (ClassNotFoundException | JsonProcessingException | IllegalArgumentException e) {
+            log.error("[OutboxRelay] Discarding outbox event {} of type {}: {}",
+                    event.getId(), event.getEventType(), e.getMessage());
+            discardedCounter.increment();
+            return null;
+        }
+
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), null,
+                event.getCreatedAt().toEpochMilli(), event.getEventKey(), payload);
+        record.headers().add(EVENT_ID_HEADER, event.getId().toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            return kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Reads the payload back into its event, which the producer serializes exactly as it was stored.
+     */
+    private static Object readPayload(OutboxEventEntity event) throws ClassNotFoundException, JsonProcessingException {
+        if (!event.getEventType().startsWith(EVENT_PACKAGE)) {
+            throw new IllegalArgumentException("Not a domain event type");
+        }
+        Class<?> type = Class.forName(event.getEventType());
+        return EventPublisherService.OBJECT_MAPPER.readValue(event.getPayload(), type);
+    }
+
+    private boolean await(OutboxEventEntity event, CompletableFuture<SendResult<String, Object>> send, long deadline) {
+        try {
+            send.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("[OutboxRelay] Failed to publish outbox event {} to topic {}: {}",
+                    event.getId(), event.getTopic(), cause.getMessage());
+        }
+        failedCounter.increment();
+        return false;
+    }
+
+    private static String blockKey(OutboxEventEntity event) {
+        return event.getTopic() + '|' + event.getEventKey();
+    }
+
+    private record BatchResult(int read, boolean complete) {
+    }
+}
@@ -2,10 +2,14 @@ package com.axconstantino.auth.infrastructure.persistence.jpa.adapter;
 
 import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.domain.repository.TokenRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.TokenEntity;
 import com.axconstantino.auth.infrastructure.persistence.jpa.repository.TokenJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
 import com.axconstantino.auth.infrastructure.persistence.mapper.TokenJpaMapper;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,11 +18,12 @@ import java.util.UUID;
 public class TokenRepositoryJpaAdapter implements TokenRepository {
 
     private final TokenJpaRepository jpaRepo;
+    private final UserJpaRepository userJpaRepo;
     private final TokenJpaMapper mapper;
 
     @Override
     public Optional<Token> findByToken(String token) {
-        return jpaRepo.findByTokenValue(token)
+        return jpaRepo.findByTokenHash(TokenDigest.sha256(token))
                 .map(mapper::toDomain);
     }
 
@@ -33,13 +38,39 @@ public class TokenRepositoryJpaAdapter implements TokenRepository {
     @Override
     public void saveAll(List<Token> tokens) {
         jpaRepo.saveAll(tokens.stream()
-                .map(mapper::toEntity)
+                .map(this::toEntity)
                 .toList());
     }
 
+    @Override
+    public List<byte[]> revokeAllByUser(UUID userId) {
+        return jpaRepo.revokeActiveByUserId(userId);
+    }
+
+    @Override
+    public boolean revoke(String token) {
+        return jpaRepo.revokeByTokenHash(TokenDigest.sha256(token)) > 0;
+    }
+
     @Override
     public void save(Token token) {
-        jpaRepo.save(mapper.toEntity(token));
+        jpaRepo.save(toEntity(token));
+    }
+
+    private TokenEntity toEntity(Token token) {
+        return mapper.toEntity(token).toBuilder()
+                .user(userJpaRepo.getReferenceById(token.getUser().getId()))
+                .build();
+    }
+
+    @Override
+    public int deleteExpiredBefore(Instant cutoff, int limit) {
+        return jpaRepo.deleteExpiredBefore(cutoff, limit);
+    }
+
+    @Override
+    public Optional<Instant> findEarliestExpiry() {
+        return Optional.ofNullable(jpaRepo.findEarliestExpiry());
     }
 
  }
@@ -1,59 +1,203 @@
 package com.axconstantino.auth.infrastructure.persistence.jpa.adapter;
 
+import com.axconstantino.auth.domain.exception.DuplicateCredentialsException;
+import com.axconstantino.auth.domain.model.ArchivedUsers;
+import com.axconstantino.auth.domain.model.Role;
 import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.model.UserCredentials;
+import com.axconstantino.auth.domain.model.UserIdentifier;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.ArchivedUsersView;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.TakenIdentifiersView;
+import com.axconstantino.auth.domain.model.UserSummary;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.UserEntity;
 import com.axconstantino.auth.domain.repository.UserRepository;
 import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
 import com.axconstantino.auth.infrastructure.persistence.mapper.UserJpaMapper;
+import com.axconstantino.auth.infrastructure.persistence.routing.ReadYourWrites;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * JPA implementation of {@link UserRepository}.
+ * <p>
+ * Reads run in read-only transactions and are therefore served by a read replica when replicas are configured.
+ * Every write marks the user's id, email and user name in {@link ReadYourWrites}, and reads by one of those keys
+ * go to the primary for a short while afterwards.
+ * </p>
+ * <p>
+ * Users are returned without their tokens, which are read and written through {@code TokenRepository}.
+ * </p>
+ */
 @RequiredArgsConstructor
 public class UserRepositoryJpaAdapter implements UserRepository {
 
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+    private static final String USER_NAME_CONSTRAINT = "uk_users_user_name";
+
     private final UserJpaRepository jpaRepo;
     private final UserJpaMapper mapper;
+    private final ReadYourWrites readYourWrites;
 
     @Override
     public Optional<User> findById(UUID id) {
-        return jpaRepo.findById(id)
-                .map(mapper::toDomain);
+        return readYourWrites.read(id.toString(), () -> jpaRepo.findById(id))
+                .map(UserRepositoryJpaAdapter::toDomainWithoutTokens);
+    }
+
+    @Override
+    public Optional<User> findWithCredentialsById(UUID id) {
+        return findById(id);
     }
 
     @Override
-    @Cacheable(value = "users", key = "#email")
     public Optional<User> findByEmail(String email) {
-        return jpaRepo.findByEmail(email)
-                .map(mapper::toDomain);
+        return readYourWrites.read(email, () -> jpaRepo.findByEmail(email))
+                .map(UserRepositoryJpaAdapter::toDomainWithoutTokens);
+    }
+
+    @Override
+    public Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return readYourWrites.read(email, () -> jpaRepo.findCredentialsByEmail(email))
+                .map(view -> new UserCredentials(
+                        view.getId(),
+                        view.getUserName(),
+                        view.getEmail(),
+                        view.getPassword(),
+                        view.getActive(),
+                        view.getEmailVerified(),
+                        parseRoles(view.getRoles())));
+    }
+
+    private static Set<Role> parseRoles(String roles) {
+        if (roles == null) {
+            return Set.of();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(Role::valueOf)
+                .collect(Collectors.toSet());
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return jpaRepo.existsByEmail(email);
+        return readYourWrites.read(email, () -> jpaRepo.existsByEmail(email));
     }
 
     @Override
     public boolean existsByUserName(String userName) {
-        return jpaRepo.existsByUserName(userName);
+        return readYourWrites.read(userName, () -> jpaRepo.existsByUserName(userName));
+    }
+
+    @Override
+    public Set<UserIdentifier> findTakenIdentifiers(String email, String userName) {
+        TakenIdentifiersView view = jpaRepo.findTakenIdentifiers(email, userName);
+        Set<UserIdentifier> taken = EnumSet.noneOf(UserIdentifier.class);
+        if (view.getEmailTaken()) {
+            taken.add(UserIdentifier.EMAIL);
+        }
+        if (view.getUserNameTaken()) {
+            taken.add(UserIdentifier.USER_NAME);
+        }
+        return taken;
     }
 
     @Override
     public Page<User> findAll(Pageable pageable) {
         return jpaRepo.findAll(pageable)
-                .map(mapper::toDomain);
+                .map(UserRepositoryJpaAdapter::toDomainWithoutTokens);
+    }
+
+    @Override
+    public List<User> findAllByUserNameAfter(String afterUserName, int limit) {
+        List<UserEntity> users = afterUserName == null
+                ? jpaRepo.findAllByOrderByUserNameAsc(Limit.of(limit))
+                : jpaRepo.findByUserNameGreaterThanOrderByUserNameAsc(afterUserName, Limit.of(limit));
+        return users.stream()
+                .map(UserRepositoryJpaAdapter::toDomainWithoutTokens)
+                .toList();
+    }
+
+    /**
+     * Maps a user without touching its lazily loaded tokens, which would cost one query per user.
+     */
+    private static User toDomainWithoutTokens(UserEntity entity) {
+        return new User(entity.getId(), entity.getUserName(), entity.getEmail(), entity.getPassword(),
+                entity.getRoles(), entity.isActive(), entity.isEmailVerified(), entity.getDeletedAt(), new HashSet<>());
+    }
+
+    @Override
+    public Stream<UserSummary> streamAllSummaries() {
+        return jpaRepo.streamAllSummaries()
+                .map(view -> new UserSummary(
+                        view.getId(),
+                        view.getUserName(),
+                        view.getEmail(),
+                        parseRoles(view.getRoles()),
+                        view.getActive(),
+                        view.getEmailVerified()));
     }
 
     @Override
     public void save(User user) {
-        jpaRepo.save(mapper.toEntity(user));
+        if (user.getPassword() == null) {
+            // Saving it would erase the password hash
+            throw new IllegalStateException("User " + user.getId() + " was read without credentials and cannot be saved");
+        }
+        try {
+            // Flushed right away so a unique constraint violation surfaces here, where it can be translated
+            jpaRepo.saveAndFlush(mapper.toEntity(user));
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e);
+        }
+        readYourWrites.markWritten(user.getId().toString(), user.getEmail(), user.getUserName());
+    }
+
+    private static RuntimeException translate(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        if (EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)) {
+            return new DuplicateCredentialsException("The email is already in use");
+        }
+        if (USER_NAME_CONSTRAINT.equalsIgnoreCase(constraint)) {
+            return new DuplicateCredentialsException("The username is already in use");
+        }
+        return e;
     }
 
     @Override
     public void deleteById(UUID id) {
         jpaRepo.deleteById(id);
+        readYourWrites.markWritten(id.toString());
+    }
+
+    @Override
+    public ArchivedUsers archiveDeletedBefore(Instant cutoff, int limit) {
+        ArchivedUsersView view = jpaRepo.archiveDeletedBefore(cutoff, limit);
+        return new ArchivedUsers(view.getUsers(), view.getRoles(), view.getTokens());
+    }
+
+    @Override
+    public Optional<Instant> findEarliestDeletion() {
+        return Optional.ofNullable(jpaRepo.findEarliestDeletionMillis()).map(Instant::ofEpochMilli);
+    }
+
+    @Override
+    public int purgeArchivedBefore(Instant cutoff, int limit) {
+        return jpaRepo.purgeArchivedBefore(cutoff, limit);
     }
 }
@@ -0,0 +1,51 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Domain event waiting in the outbox to be published to Kafka.
+ * <p>
+ * The id is assigned from a sequence when the event is inserted, not when its transaction commits: a transaction
+ * committing after another may hold the lower id, so the id only orders events best effort. It matches commit order
+ * for events whose transactions serialize on a lock taken before the event is inserted.
+ * </p>
+ */
+@Entity
+@Table(name = "event_outbox")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(updatable = false, nullable = false)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String topic;
+
+    @Column(name = "event_key", nullable = false, updatable = false)
+    private String eventKey;
+
+    /**
+     * Fully qualified class name of the event, which the payload is read back into before being sent.
+     */
+    @Column(name = "event_type", nullable = false, updatable = false)
+    private String eventType;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,19 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.entity;
+
+import com.axconstantino.auth.domain.model.TimeOrderedUuid;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+
+/**
+ * Hibernate UUID algorithm producing version 7 identifiers through {@link TimeOrderedUuid}, for use with
+ * {@code @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)}.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return TimeOrderedUuid.next();
+    }
+}
@@ -4,6 +4,7 @@ import com.axconstantino.auth.domain.model.TokenType;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -18,14 +19,17 @@ import java.util.UUID;
 public class TokenEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     @Column(updatable = false, nullable = false)
     @EqualsAndHashCode.Include
     private UUID id;
 
+    /**
+     * SHA-256 of the token. The raw token is never stored, lookups hash the presented token instead.
+     */
     @JsonIgnore
-    @Column(name = "token_value", nullable = false, unique = true)
-    private String tokenValue;
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -60,8 +60,12 @@ public class UserEntity {
     @Column(name = "deleted_at")
     private Instant deletedAt;
 
+    /**
+     * Read-only side of the association: tokens are written through {@code TokenRepository}, so saving a user
+     * never inserts, merges or orphan-deletes tokens.
+     */
     @JsonIgnore
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "user")
     @Singular("token")
     private Set<TokenEntity> tokens;
 }
\ No newline at end of file
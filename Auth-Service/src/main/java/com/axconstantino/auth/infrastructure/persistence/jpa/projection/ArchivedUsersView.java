@@ -0,0 +1,10 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.projection;
+
+/**
+ * Native-query projection of the row counts moved by one archive batch.
+ */
+public interface ArchivedUsersView {
+    int getUsers();
+    int getRoles();
+    int getTokens();
+}
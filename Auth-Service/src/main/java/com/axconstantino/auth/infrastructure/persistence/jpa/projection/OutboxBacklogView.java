@@ -0,0 +1,13 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.projection;
+
+/**
+ * Native-query projection of the events waiting in the outbox.
+ */
+public interface OutboxBacklogView {
+    long getEvents();
+
+    /**
+     * @return when the oldest waiting event was written, in epoch milliseconds, null if there is none
+     */
+    Long getOldestMillis();
+}
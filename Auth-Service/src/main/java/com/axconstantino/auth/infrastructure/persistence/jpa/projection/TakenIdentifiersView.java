@@ -0,0 +1,9 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.projection;
+
+/**
+ * Native-query projection telling which of an email and a user name are already taken.
+ */
+public interface TakenIdentifiersView {
+    boolean getEmailTaken();
+    boolean getUserNameTaken();
+}
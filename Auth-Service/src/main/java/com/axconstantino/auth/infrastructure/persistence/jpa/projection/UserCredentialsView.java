@@ -0,0 +1,17 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.projection;
+
+import java.util.UUID;
+
+/**
+ * Native-query projection of a user's credentials, with roles aggregated into a comma separated string so the
+ * whole projection is read in a single row.
+ */
+public interface UserCredentialsView {
+    UUID getId();
+    String getUserName();
+    String getEmail();
+    String getPassword();
+    boolean getActive();
+    boolean getEmailVerified();
+    String getRoles();
+}
@@ -0,0 +1,15 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.projection;
+
+import java.util.UUID;
+
+/**
+ * Native-query projection of a user for bulk reads, with roles aggregated into a comma separated string.
+ */
+public interface UserSummaryView {
+    UUID getId();
+    String getUserName();
+    String getEmail();
+    String getRoles();
+    boolean getActive();
+    boolean getEmailVerified();
+}
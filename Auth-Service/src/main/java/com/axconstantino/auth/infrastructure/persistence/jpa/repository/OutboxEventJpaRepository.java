@@ -0,0 +1,38 @@
+package com.axconstantino.auth.infrastructure.persistence.jpa.repository;
+
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.OutboxEventEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.OutboxBacklogView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventJpaRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Takes the transaction-scoped advisory lock identified by {@code lockId}, released when the transaction ends.
+     *
+     * @return true if the lock was taken, false if another transaction holds it
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:lockId)", nativeQuery = true)
+    boolean tryLockForTransaction(long lockId);
+
+    /**
+     * @return the {@code limit} oldest committed events by id, which is insertion order rather than commit order:
+     * an event still uncommitted is skipped and read in a later batch, after events with a higher id
+     */
+    @Query(value = "SELECT * FROM event_outbox ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEventEntity> findOldest(int limit);
+
+    @Query(value = """
+            SELECT count(*) AS events,
+                   CAST(floor(extract(EPOCH FROM min(created_at)) * 1000) AS bigint) AS "oldestMillis"
+            FROM event_outbox""", nativeQuery = true)
+    OutboxBacklogView findBacklog();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
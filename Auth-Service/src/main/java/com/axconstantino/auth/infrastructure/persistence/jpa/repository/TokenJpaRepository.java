@@ -2,15 +2,100 @@ package com.axconstantino.auth.infrastructure.persistence.jpa.repository;
 
 import com.axconstantino.auth.infrastructure.persistence.jpa.entity.TokenEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TokenJpaRepository extends JpaRepository<TokenEntity, UUID> {
-    Optional<TokenEntity> findByTokenValue(String tokenValue);
+    Optional<TokenEntity> findByTokenHash(byte[] tokenHash);
 
-    @Query("SELECT t FROM TokenEntity t WHERE t.user.id = :userId AND t.active = true")
+    /**
+     * @return which of the given digests are already stored
+     */
+    @Query("SELECT t.tokenHash FROM TokenEntity t WHERE t.tokenHash IN :tokenHashes")
+    List<byte[]> findExistingTokenHashes(Collection<byte[]> tokenHashes);
+
+    @Query("""
+            SELECT t FROM TokenEntity t
+            WHERE t.user.id = :userId AND t.active = true
+              AND (t.expiresAt IS NULL OR t.expiresAt > CURRENT_TIMESTAMP)""")
     List<TokenEntity> findByUserIdAndActiveTrue(UUID userId);
+
+    /**
+     * Revokes every active, unexpired token of a user in a single statement.
+     * <p>
+     * {@code RETURNING} is PostgreSQL specific, which is why this is a native query run as a result-list query
+     * rather than a {@link Modifying} one; it needs its own read-write transaction for the same reason.
+     * </p>
+     *
+     * @return the {@code token_hash} of each token revoked
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE tokens SET active = false
+            WHERE user_id = :userId AND active AND (expires_at IS NULL OR expires_at > now())
+            RETURNING token_hash""", nativeQuery = true)
+    List<byte[]> revokeActiveByUserId(UUID userId);
+
+    /**
+     * Revokes every active, unexpired token of a user issued before the cutoff, in a single statement. Tokens
+     * issued since are left alone, so the revocation can be applied again without touching them.
+     *
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE tokens SET active = false
+            WHERE user_id = :userId AND issued_at < :cutoff AND active
+              AND (expires_at IS NULL OR expires_at > now())""", nativeQuery = true)
+    int revokeActiveByUserIdIssuedBefore(UUID userId, Instant cutoff);
+
+    /**
+     * Revokes a single token if it is still active.
+     *
+     * @return the number of rows updated, 0 if the token is unknown or was already revoked
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TokenEntity t SET t.active = false WHERE t.tokenHash = :tokenHash AND t.active = true")
+    int revokeByTokenHash(byte[] tokenHash);
+
+    /**
+     * Revokes the given tokens that are still active, in a single statement.
+     *
+     * @return the number of rows updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TokenEntity t SET t.active = false WHERE t.tokenHash IN :tokenHashes AND t.active = true")
+    int revokeByTokenHashIn(Collection<byte[]> tokenHashes);
+
+    /**
+     * Deletes up to {@code limit} of the oldest tokens that expired before the cutoff.
+     * <p>
+     * Rows locked by a concurrent purge on another instance are skipped rather than waited for, so several
+     * instances can purge at the same time, and each batch is its own short transaction.
+     * </p>
+     *
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM tokens WHERE id IN (
+                SELECT id FROM tokens WHERE expires_at < :cutoff
+                ORDER BY expires_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)""", nativeQuery = true)
+    int deleteExpiredBefore(Instant cutoff, int limit);
+
+    @Query("SELECT MIN(t.expiresAt) FROM TokenEntity t")
+    Instant findEarliestExpiry();
 }
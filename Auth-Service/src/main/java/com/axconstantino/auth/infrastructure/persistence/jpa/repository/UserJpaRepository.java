@@ -1,13 +1,146 @@
 package com.axconstantino.auth.infrastructure.persistence.jpa.repository;
 
 import com.axconstantino.auth.infrastructure.persistence.jpa.entity.UserEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.ArchivedUsersView;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.TakenIdentifiersView;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.UserCredentialsView;
+import com.axconstantino.auth.infrastructure.persistence.jpa.projection.UserSummaryView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserJpaRepository extends JpaRepository<UserEntity, UUID> {
     Optional<UserEntity> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByUserName(String userName);
+
+    /**
+     * Checks both identifiers in one round trip, using the unique index on each column. Soft-deleted users are
+     * included, since they still hold the unique constraints.
+     */
+    @Query(value = """
+            SELECT COALESCE(bool_or(u.email = :email), false) AS "emailTaken",
+                   COALESCE(bool_or(u.user_name = :userName), false) AS "userNameTaken"
+            FROM users u
+            WHERE u.email = :email OR u.user_name = :userName""", nativeQuery = true)
+    TakenIdentifiersView findTakenIdentifiers(String email, String userName);
+
+    List<UserEntity> findAllByOrderByUserNameAsc(Limit limit);
+
+    List<UserEntity> findByUserNameGreaterThanOrderByUserNameAsc(String userName, Limit limit);
+
+    /**
+     * Loads what is needed to authenticate a user in one row, without touching the tokens table.
+     */
+    @Query(value = """
+            SELECT u.id AS "id", u.user_name AS "userName", u.email AS "email", u.password AS "password",
+                   u.active AS "active", u.email_verified AS "emailVerified",
+                   string_agg(r.role_id, ',') AS "roles"
+            FROM users u
+            LEFT JOIN user_roles r ON r.user_id = u.id
+            WHERE u.email = :email AND u.deleted_at IS NULL
+            GROUP BY u.id""", nativeQuery = true)
+    Optional<UserCredentialsView> findCredentialsByEmail(String email);
+
+    /**
+     * Streams every live user through a forward-only cursor, fetching {@code 1000} rows per round trip.
+     * Roles are aggregated per row from the {@code user_roles} primary key, so rows are produced as the
+     * table is scanned instead of after a global aggregation. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT u.id AS "id", u.user_name AS "userName", u.email AS "email",
+                   (SELECT string_agg(r.role_id, ',') FROM user_roles r WHERE r.user_id = u.id) AS "roles",
+                   u.active AS "active", u.email_verified AS "emailVerified"
+            FROM users u
+            WHERE u.deleted_at IS NULL""", nativeQuery = true)
+    Stream<UserSummaryView> streamAllSummaries();
+
+    /**
+     * Moves the users soft-deleted longest before the cutoff, at most {@code limit} of them, to the archive
+     * tables together with their roles and tokens, in a single statement.
+     * <p>
+     * Users locked by another instance archiving concurrently are skipped. The foreign keys to {@code users}
+     * are only checked at the end of the statement, once the roles and tokens are gone as well.
+     * </p>
+     */
+    @Transactional
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM users WHERE deleted_at < :cutoff
+                ORDER BY deleted_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED),
+            moved_tokens AS (
+                DELETE FROM tokens t USING batch b WHERE t.user_id = b.id
+                RETURNING t.id, t.token_hash, t.type, t.issued_at, t.expires_at, t.ip_address, t.user_agent,
+                          t.active, t.user_id),
+            archived_tokens AS (
+                INSERT INTO tokens_archive (id, token_hash, type, issued_at, expires_at, ip_address, user_agent,
+                                            active, user_id)
+                SELECT * FROM moved_tokens
+                RETURNING 1),
+            moved_roles AS (
+                DELETE FROM user_roles r USING batch b WHERE r.user_id = b.id
+                RETURNING r.user_id, r.role_id),
+            archived_roles AS (
+                INSERT INTO user_roles_archive (user_id, role_id)
+                SELECT * FROM moved_roles
+                RETURNING 1),
+            moved_users AS (
+                DELETE FROM users u USING batch b WHERE u.id = b.id
+                RETURNING u.id, u.user_name, u.email, u.password, u.active, u.email_verified, u.deleted_at),
+            archived_users AS (
+                INSERT INTO users_archive (id, user_name, email, password, active, email_verified, deleted_at,
+                                           archived_at)
+                SELECT m.*, now() FROM moved_users m
+                RETURNING 1)
+            SELECT (SELECT CAST(count(*) AS int) FROM archived_users) AS "users",
+                   (SELECT CAST(count(*) AS int) FROM archived_roles) AS "roles",
+                   (SELECT CAST(count(*) AS int) FROM archived_tokens) AS "tokens\"""", nativeQuery = true)
+    ArchivedUsersView archiveDeletedBefore(Instant cutoff, int limit);
+
+    /**
+     * @return the earliest deletion instant among soft-deleted users, in epoch milliseconds, null if there is none
+     */
+    @Query(value = """
+            SELECT CAST(floor(extract(EPOCH FROM min(deleted_at)) * 1000) AS bigint)
+            FROM users
+            WHERE deleted_at IS NOT NULL""", nativeQuery = true)
+    Long findEarliestDeletionMillis();
+
+    /**
+     * Permanently deletes the users archived longest before the cutoff, at most {@code limit} of them,
+     * together with their archived roles and tokens.
+     *
+     * @return the number of archived users deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            WITH batch AS (
+                SELECT id FROM users_archive WHERE archived_at < :cutoff
+                ORDER BY archived_at
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED),
+            purged_tokens AS (
+                DELETE FROM tokens_archive t USING batch b WHERE t.user_id = b.id),
+            purged_roles AS (
+                DELETE FROM user_roles_archive r USING batch b WHERE r.user_id = b.id)
+            DELETE FROM users_archive u USING batch b WHERE u.id = b.id""", nativeQuery = true)
+    int purgeArchivedBefore(Instant cutoff, int limit);
 }
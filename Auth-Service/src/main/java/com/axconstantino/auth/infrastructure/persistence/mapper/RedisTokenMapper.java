@@ -2,10 +2,16 @@ package com.axconstantino.auth.infrastructure.persistence.mapper;
 
 import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface RedisTokenMapper {
+    @Mapping(target = "type", source = "tokenType")
     RedisTokenEntity toEntity(Token token);
     Token toDomain(RedisTokenEntity entity);
+
+    @Mapping(target = "tokenValue", source = "token")
+    TokenData toData(RedisTokenEntity entity);
 }
@@ -1,11 +1,29 @@
 package com.axconstantino.auth.infrastructure.persistence.mapper;
 
 import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.User;
 import com.axconstantino.auth.infrastructure.persistence.jpa.entity.TokenEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.UserEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface TokenJpaMapper {
+    @Mapping(target = "token", ignore = true)
     Token toDomain(TokenEntity entity);
+
+    /**
+     * Maps the owning user of a token without its tokens, which would map back to the user without end and
+     * load every token the user ever had.
+     */
+    @Mapping(target = "tokens", expression = "java(new java.util.HashSet<>())")
+    User toDomain(UserEntity entity);
+
+    /**
+     * The owning user is not mapped; it is attached by the caller as a reference, so saving a token never
+     * maps or merges the whole user.
+     */
+    @Mapping(target = "type", source = "tokenType")
+    @Mapping(target = "user", ignore = true)
     TokenEntity toEntity(Token token);
 }
@@ -3,9 +3,15 @@ package com.axconstantino.auth.infrastructure.persistence.mapper;
 import com.axconstantino.auth.domain.model.User;
 import com.axconstantino.auth.infrastructure.persistence.jpa.entity.UserEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface UserJpaMapper {
+    /**
+     * Tokens are not mapped: each would map its owning user again, and they are never read from the user.
+     */
+    @Mapping(target = "tokens", expression = "java(new java.util.HashSet<>())")
     User toDomain(UserEntity userEntity);
+    @Mapping(target = "tokens", ignore = true)
     UserEntity toEntity(User user);
 }
@@ -0,0 +1,60 @@
+package com.axconstantino.auth.infrastructure.persistence.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes escape hatch for replica routing.
+ * <p>
+ * Writes record the keys they touched (user id, email, user name); for {@code auth.datasource.read-your-writes-window}
+ * afterwards, reads by any of those keys are sent to the primary, so a user who just registered or changed their
+ * profile never reads an older copy from a lagging replica. The window should exceed the replicas' usual lag.
+ * </p>
+ * <p>
+ * Keys are tracked per instance. Reads served by another instance within the window can still hit a replica.
+ * </p>
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWrites(@Value("${auth.datasource.read-your-writes-window:PT5S}") Duration window,
+                          @Value("${auth.datasource.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Records that the entity identified by these keys has just been written.
+     */
+    public void markWritten(String... keys) {
+        for (String key : keys) {
+            if (key != null) {
+                recentWrites.put(normalize(key), Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Runs the query on the primary if the key was written within the window, on a replica otherwise.
+     */
+    public <T> T read(String key, Supplier<T> query) {
+        if (key != null && recentWrites.getIfPresent(normalize(key)) != null) {
+            return ReplicaRoutingContext.onPrimary(query);
+        }
+        return query.get();
+    }
+
+    private static String normalize(String key) {
+        return key.toLowerCase(Locale.ROOT);
+    }
+}
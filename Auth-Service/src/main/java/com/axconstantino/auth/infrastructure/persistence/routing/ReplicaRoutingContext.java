@@ -0,0 +1,41 @@
+package com.axconstantino.auth.infrastructure.persistence.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread switch sending read-only work to the primary database instead of a replica.
+ * <p>
+ * Routing is decided when a transaction first touches the database, so the switch has to be on before that
+ * point: wrapping a repository call that opens its own read-only transaction works, wrapping code that runs
+ * inside a read-only transaction which has already queried a replica does not.
+ * </p>
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = ThreadLocal.withInitial(() -> false);
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * Runs the query with read-only connections routed to the primary.
+     */
+    public static <T> T onPrimary(Supplier<T> query) {
+        if (PRIMARY_FORCED.get()) {
+            return query.get();
+        }
+        PRIMARY_FORCED.set(true);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    /**
+     * @return true if read-only connections opened by the current thread must come from the primary
+     */
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get();
+    }
+}
@@ -0,0 +1,78 @@
+package com.axconstantino.auth.infrastructure.persistence.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source of read-only connections: replicas in round-robin order, or the primary when
+ * {@link ReplicaRoutingContext#isPrimaryForced()}.
+ * <p>
+ * It is installed as the read-only data source of a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which only asks for a physical
+ * connection once the transaction's read-only flag is known. A replica that cannot hand out a connection is
+ * skipped in favour of the next one, and the primary is used as a last resort so reads keep working while
+ * every replica is down.
+ * </p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (ReplicaRoutingContext.isPrimaryForced() || replicas.isEmpty()) {
+            return opener.open(primary);
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            try {
+                return opener.open(replicas.get(index));
+            } catch (SQLException e) {
+                log.warn("[ReplicaRoutingDataSource] Replica #{} unavailable: {}", index, e.getMessage());
+            }
+        }
+        log.warn("[ReplicaRoutingDataSource] No replica available, reading from the primary");
+        return opener.open(primary);
+    }
+
+    /**
+     * Closes the replica pools. The primary is owned, and closed, by whoever created it.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource target) throws SQLException;
+    }
+}
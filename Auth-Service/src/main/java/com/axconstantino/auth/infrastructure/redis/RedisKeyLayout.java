@@ -0,0 +1,136 @@
+package com.axconstantino.auth.infrastructure.redis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Redis key layout of the token store, safe for Redis Cluster.
+ * <p>
+ * Every key belonging to a user carries the same hash tag, so it lands on the same cluster slot and
+ * multi-key commands and scripts over one user's keys stay atomic:
+ * <ul>
+ *     <li>{@code auth:{tag}:token:<token>} - token entry</li>
+ *     <li>{@code auth:{tag}:user:<userId>} - session index</li>
+ *     <li>{@code auth:{tag}:revoked:<jti>} - denylisted token</li>
+ *     <li>{@code auth:{tag}:revoked-before:<userId>} - issued-before cutoff</li>
+ *     <li>{@code auth:{tag}:pending-tokens} - tokens of the bucket not yet written to the database, in
+ *     write-behind mode</li>
+ * </ul>
+ * The tag is a bucket of the user id, three hex characters out of 4096, rather than the id itself: lookups by
+ * token must find the tag from the token alone. For JWTs it is derived from the unverified {@code userId}
+ * claim (a forged claim only routes the lookup to a key that does not exist); opaque tokens start with it.
+ * </p>
+ * <p>
+ * Scripts reading a user's session index may build token keys from {@link #tokenKeyPrefix(String)} and the
+ * index members, without declaring them: with the index's tag they are in its slot.
+ * </p>
+ * <p>
+ * {@code login:fail:<email>} counters and the user cache's {@code auth:user-cache:id:<userId>} and
+ * {@code auth:user-cache:email:<email>} entries are only ever used by single-key commands, so they need no tag.
+ * Neither do the write-behind queue {@code auth:token-writes} and its lease {@code auth:token-writes:lease}.
+ * </p>
+ */
+public final class RedisKeyLayout {
+
+    /**
+     * Length of the tag, which is also the prefix of opaque tokens.
+     */
+    public static final int TAG_LENGTH = 3;
+
+    private static final int BUCKET_MASK = 0xfff;
+    private static final String LOGIN_FAILURES_PREFIX = "login:fail:";
+    private static final String TOKEN_WRITE_QUEUE_KEY = "auth:token-writes";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private RedisKeyLayout() {
+    }
+
+    /**
+     * @param userId the user id
+     * @return the hash tag shared by all keys of the user
+     */
+    public static String userTag(String userId) {
+        String hex = Integer.toHexString(userId.hashCode() & BUCKET_MASK);
+        return "0".repeat(TAG_LENGTH - hex.length()) + hex;
+    }
+
+    /**
+     * @param token a JWT or opaque token issued by this service
+     * @return the hash tag of the token's owner, or a tag derived from the token itself if it carries none
+     */
+    public static String tokenTag(String token) {
+        int firstDot = token.indexOf('.');
+        if (firstDot < 0) {
+            return token.length() > TAG_LENGTH ? token.substring(0, TAG_LENGTH) : userTag(token);
+        }
+
+        String userId = jwtUserId(token, firstDot);
+        return userTag(userId != null ? userId : token);
+    }
+
+    public static String tokenKey(String token) {
+        return tokenKeyPrefix(tokenTag(token)) + token;
+    }
+
+    public static String tokenKey(String userId, String token) {
+        return tokenKeyPrefix(userTag(userId)) + token;
+    }
+
+    public static String tokenKeyPrefix(String tag) {
+        return "auth:{" + tag + "}:token:";
+    }
+
+    public static String userIndexKey(String userId) {
+        return "auth:{" + userTag(userId) + "}:user:" + userId;
+    }
+
+    public static String revokedKey(String userId, String tokenId) {
+        return "auth:{" + userTag(userId) + "}:revoked:" + tokenId;
+    }
+
+    public static String revokedBeforeKey(String userId) {
+        return "auth:{" + userTag(userId) + "}:revoked-before:" + userId;
+    }
+
+    public static String pendingTokensKey(String tag) {
+        return "auth:{" + tag + "}:pending-tokens";
+    }
+
+    public static String tokenWriteQueueKey() {
+        return TOKEN_WRITE_QUEUE_KEY;
+    }
+
+    public static String tokenWriteLeaseKey() {
+        return TOKEN_WRITE_QUEUE_KEY + ":lease";
+    }
+
+    public static String loginFailuresKey(String email) {
+        return LOGIN_FAILURES_PREFIX + email;
+    }
+
+    public static String userCacheKey(String userId) {
+        return "auth:user-cache:id:" + userId;
+    }
+
+    public static String userEmailCacheKey(String normalizedEmail) {
+        return "auth:user-cache:email:" + normalizedEmail;
+    }
+
+    private static String jwtUserId(String token, int firstDot) {
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0) {
+            return null;
+        }
+        try {
+            byte[] payload = BASE64_URL.decode(token.substring(firstDot + 1, secondDot));
+            JsonNode userId = OBJECT_MAPPER.readTree(payload).get("userId");
+            return userId != null && userId.isTextual() ? userId.asText() : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+}
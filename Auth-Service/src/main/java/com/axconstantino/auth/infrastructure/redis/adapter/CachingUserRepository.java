@@ -0,0 +1,380 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.model.ArchivedUsers;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.model.UserCredentials;
+import com.axconstantino.auth.domain.model.UserIdentifier;
+import com.axconstantino.auth.domain.model.UserSummary;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.axconstantino.auth.infrastructure.redis.model.CachedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Two-level cache in front of the user store, for lookups by id and by email.
+ * <p>
+ * Users are cached in a bounded local tier and in Redis, shared by every node. Lookups go local, then Redis,
+ * then the database, and fill the tiers they missed. Both tiers hold each user once, under its id; emails,
+ * normalized to lower case, only map to that id, so an entry can never be found under an email it no longer
+ * has. Only positive lookups are cached.
+ * </p>
+ * <p>
+ * Both tiers hold immutable {@link CachedUser} snapshots, without tokens or password hash, and every hit builds
+ * a new {@link User}: a caller mutating the user it got, whether it saves it or not, never changes what other
+ * callers see. Users served here cannot be saved; flows that check the password or save a user load it with
+ * {@link #findWithCredentialsById}, which always reads the store.
+ * </p>
+ * <p>
+ * Every write evicts the user's id and its old and new email from both tiers and broadcasts the eviction on
+ * the {@value #INVALIDATION_CHANNEL} channel, as {@code <nodeId>|<userId>|<email>,<email>...}, so the other
+ * nodes drop their local copies. Inside a transaction the eviction is repeated after commit, so a concurrent
+ * reader cannot put back the row as it was before the commit. The local tier expires quickly, which bounds
+ * staleness if a message is lost.
+ * </p>
+ * <p>
+ * Credentials, users loaded for modification, existence checks and listings are not cached and go straight to
+ * the store.
+ * </p>
+ * <p>
+ * Metrics:
+ * <ul>
+ *     <li>{@code cache.gets}/{@code cache.evictions} etc. under the cache name {@code auth.user.local}</li>
+ *     <li>{@code auth.user-cache.lookups}, tagged {@code tier=local|redis|database}: where each lookup was
+ *     answered, from which the overall hit ratio is {@code (local + redis) / total}</li>
+ *     <li>{@code auth.user-cache.evictions}: users evicted, by {@code origin=local|remote}</li>
+ * </ul>
+ * </p>
+ */
+@Slf4j
+public class CachingUserRepository implements UserRepository, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "auth:user-invalidation";
+
+    private static final String CACHE_NAME = "auth.user.local";
+
+    private final UserRepository delegate;
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<UUID, CachedUser> localById;
+    private final Cache<String, UUID> localIdByEmail;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseLookups;
+    private final Counter localEvictions;
+    private final Counter remoteEvictions;
+
+    public CachingUserRepository(UserRepository delegate,
+                                 RedisTemplate<String, String> redisStringTemplate,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 Duration localTtl,
+                                 Duration redisTtl,
+                                 long maximumSize) {
+        this.delegate = delegate;
+        this.redisStringTemplate = redisStringTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.localById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        this.localIdByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(localTtl)
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localById, CACHE_NAME);
+        this.localHits = lookups(meterRegistry, "local");
+        this.redisHits = lookups(meterRegistry, "redis");
+        this.databaseLookups = lookups(meterRegistry, "database");
+        this.localEvictions = Counter.builder("auth.user-cache.evictions").tag("origin", "local").register(meterRegistry);
+        this.remoteEvictions = Counter.builder("auth.user-cache.evictions").tag("origin", "remote").register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("auth.user-cache.lookups")
+                .description("User lookups by the tier that answered them")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<User> findById(UUID id) {
+        CachedUser local = localById.getIfPresent(id);
+        if (local != null) {
+            localHits.increment();
+            return Optional.of(local.toUser());
+        }
+
+        Optional<CachedUser> remote = readRemote(id);
+        if (remote.isPresent()) {
+            redisHits.increment();
+            putLocal(remote.get());
+            return remote.map(CachedUser::toUser);
+        }
+
+        databaseLookups.increment();
+        Optional<User> loaded = delegate.findById(id);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        String normalizedEmail = normalize(email);
+
+        UUID localId = localIdByEmail.getIfPresent(normalizedEmail);
+        CachedUser local = localId != null ? localById.getIfPresent(localId) : null;
+        if (local != null && normalizedEmail.equals(normalize(local.email()))) {
+            localHits.increment();
+            return Optional.of(local.toUser());
+        }
+
+        Optional<CachedUser> remote = readRemoteId(normalizedEmail)
+                .flatMap(this::readRemote)
+                .filter(user -> normalizedEmail.equals(normalize(user.email())));
+        if (remote.isPresent()) {
+            redisHits.increment();
+            putLocal(remote.get());
+            return remote.map(CachedUser::toUser);
+        }
+
+        databaseLookups.increment();
+        Optional<User> loaded = delegate.findByEmail(email);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Never cached: the user is about to have its password checked or be modified, so it must be current and
+     * carry its password hash.
+     */
+    @Override
+    public Optional<User> findWithCredentialsById(UUID id) {
+        return delegate.findWithCredentialsById(id);
+    }
+
+    /**
+     * Never cached: login must see password and status changes immediately. Read-only, so it can be served by a
+     * replica when called outside a read-write transaction, as login does; within one it joins it rather than take
+     * a second connection.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return delegate.findCredentialsByEmail(email);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public boolean existsByUserName(String userName) {
+        return delegate.existsByUserName(userName);
+    }
+
+    @Override
+    public Set<UserIdentifier> findTakenIdentifiers(String email, String userName) {
+        return delegate.findTakenIdentifiers(email, userName);
+    }
+
+    @Override
+    public Page<User> findAll(Pageable pageable) {
+        return delegate.findAll(pageable);
+    }
+
+    @Override
+    public List<User> findAllByUserNameAfter(String afterUserName, int limit) {
+        return delegate.findAllByUserNameAfter(afterUserName, limit);
+    }
+
+    @Override
+    public Stream<UserSummary> streamAllSummaries() {
+        return delegate.streamAllSummaries();
+    }
+
+    @Override
+    public void save(User user) {
+        String previousEmail = cachedEmail(user.getId());
+        delegate.save(user);
+        evict(user.getId(), previousEmail, user.getEmail());
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        String previousEmail = cachedEmail(id);
+        delegate.deleteById(id);
+        evict(id, previousEmail);
+    }
+
+    /**
+     * Only soft-deleted users are archived, and those were evicted when they were deleted.
+     */
+    @Override
+    public ArchivedUsers archiveDeletedBefore(Instant cutoff, int limit) {
+        return delegate.archiveDeletedBefore(cutoff, limit);
+    }
+
+    @Override
+    public Optional<Instant> findEarliestDeletion() {
+        return delegate.findEarliestDeletion();
+    }
+
+    @Override
+    public int purgeArchivedBefore(Instant cutoff, int limit) {
+        return delegate.purgeArchivedBefore(cutoff, limit);
+    }
+
+    /**
+     * Applies an eviction published by another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("[CachingUserRepository] Ignoring malformed invalidation message");
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            List<String> emails = parts[2].isEmpty() ? List.of() : Arrays.asList(parts[2].split(","));
+            evictLocal(UUID.fromString(parts[1]), emails);
+            remoteEvictions.increment();
+        } catch (IllegalArgumentException e) {
+            log.warn("[CachingUserRepository] Ignoring invalidation with malformed user ID: {}", parts[1]);
+        }
+    }
+
+    // --- Tiers ---
+
+    private void put(User user) {
+        CachedUser snapshot = CachedUser.from(user);
+        putLocal(snapshot);
+        try {
+            String json = objectMapper.writeValueAsString(snapshot);
+            redisStringTemplate.opsForValue().set(RedisKeyLayout.userCacheKey(user.getId().toString()), json, redisTtl);
+            redisStringTemplate.opsForValue().set(RedisKeyLayout.userEmailCacheKey(normalize(user.getEmail())),
+                    user.getId().toString(), redisTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // The local tier still holds the user; the next node to miss loads it from the database
+            log.warn("[CachingUserRepository] Failed to write user to Redis: {}", e.getMessage());
+        }
+    }
+
+    private void putLocal(CachedUser user) {
+        localById.put(user.id(), user);
+        localIdByEmail.put(normalize(user.email()), user.id());
+    }
+
+    private Optional<CachedUser> readRemote(UUID id) {
+        try {
+            String json = redisStringTemplate.opsForValue().get(RedisKeyLayout.userCacheKey(id.toString()));
+            return json == null ? Optional.empty() : Optional.of(objectMapper.readValue(json, CachedUser.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("[CachingUserRepository] Failed to read user from Redis: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<UUID> readRemoteId(String normalizedEmail) {
+        try {
+            String id = redisStringTemplate.opsForValue().get(RedisKeyLayout.userEmailCacheKey(normalizedEmail));
+            return Optional.ofNullable(id).map(UUID::fromString);
+        } catch (RuntimeException e) {
+            log.warn("[CachingUserRepository] Failed to read user email mapping from Redis: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String cachedEmail(UUID id) {
+        CachedUser local = localById.getIfPresent(id);
+        if (local != null) {
+            return local.email();
+        }
+        return readRemote(id).map(CachedUser::email).orElse(null);
+    }
+
+    // --- Eviction ---
+
+    private void evict(UUID id, String... emails) {
+        List<String> normalizedEmails = Arrays.stream(emails)
+                .filter(Objects::nonNull)
+                .map(CachingUserRepository::normalize)
+                .distinct()
+                .toList();
+
+        evictEverywhere(id, normalizedEmails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(id, normalizedEmails);
+                }
+            });
+        }
+    }
+
+    private void evictEverywhere(UUID id, List<String> normalizedEmails) {
+        evictLocal(id, normalizedEmails);
+        localEvictions.increment();
+
+        List<String> keys = new ArrayList<>();
+        keys.add(RedisKeyLayout.userCacheKey(id.toString()));
+        normalizedEmails.forEach(email -> keys.add(RedisKeyLayout.userEmailCacheKey(email)));
+        try {
+            // One key at a time: the keys carry no common hash tag, so a multi-key DEL could span cluster slots
+            keys.forEach(redisStringTemplate::delete);
+            redisStringTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "|" + id + "|" + String.join(",", normalizedEmails));
+        } catch (RuntimeException e) {
+            // Other nodes still drop the entry once their local TTL has elapsed
+            log.warn("[CachingUserRepository] Failed to evict user {} from Redis: {}", id, e.getMessage());
+        }
+    }
+
+    private void evictLocal(UUID id, List<String> normalizedEmails) {
+        localById.invalidate(id);
+        localIdByEmail.invalidateAll(normalizedEmails);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,231 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process near-cache in front of the Redis token store.
+ * <p>
+ * Tokens found in Redis are kept locally, so a hot token is validated without a network hop. Deletions are
+ * applied locally and broadcast on the {@value #INVALIDATION_CHANNEL} pub/sub channel so every other node
+ * drops its copy as well. Pub/sub is fire-and-forget, so entries also expire after {@code maxStaleness}: a
+ * revocation is honored on every node within that window even if a message is lost. Only positive lookups
+ * are cached, a token unknown to Redis is always looked up again.
+ * </p>
+ * <p>
+ * Messages have the form {@code <publishedAtMillis>|<nodeId>|t|<digest>,<digest>...}. Tokens are identified by
+ * their SHA-256 digest, raw tokens never leave the node. Deleting all tokens of a user invalidates the tokens the
+ * store reports deleted, so no node has to scan its cache for the user's entries.
+ * </p>
+ * <p>
+ * Metrics:
+ * <ul>
+ *     <li>{@code cache.gets}/{@code cache.evictions} etc. under the cache name {@code auth.token.near}: hit rate</li>
+ *     <li>{@code auth.token.near-cache.staleness}: age of local entries when served</li>
+ *     <li>{@code auth.token.near-cache.invalidation.lag}: delay between a remote node publishing an
+ *     invalidation and this node applying it (includes clock skew between nodes)</li>
+ *     <li>{@code auth.token.near-cache.invalidations}: invalidation messages applied</li>
+ * </ul>
+ * </p>
+ */
+@Slf4j
+public class NearCachedTokenCacheRepository implements TokenCacheRepository, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "auth:token-invalidation";
+
+    private static final String CACHE_NAME = "auth.token.near";
+    private static final String TOKEN_SCOPE = "t";
+
+    private final TokenCacheRepository delegate;
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Cache<String, CachedToken> cache;
+    private final Timer staleness;
+    private final Timer invalidationLag;
+    private final Counter tokenInvalidations;
+
+    public NearCachedTokenCacheRepository(TokenCacheRepository delegate,
+                                          RedisTemplate<String, String> redisStringTemplate,
+                                          MeterRegistry meterRegistry,
+                                          Duration maxStaleness,
+                                          long maximumSize) {
+        this.delegate = delegate;
+        this.redisStringTemplate = redisStringTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String digest, CachedToken entry) -> timeToLive(entry, maxStaleness)))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.staleness = Timer.builder("auth.token.near-cache.staleness")
+                .description("Age of near-cache entries when they are served")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("auth.token.near-cache.invalidation.lag")
+                .description("Delay between an invalidation being published and applied on this node")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.tokenInvalidations = Counter.builder("auth.token.near-cache.invalidations")
+                .tag("scope", "token")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void save(TokenData tokenData, long ttl, TimeUnit unit) {
+        delegate.save(tokenData, ttl, unit);
+    }
+
+    @Override
+    public void saveAll(List<TokenData> tokens) {
+        delegate.saveAll(tokens);
+    }
+
+    @Override
+    public Optional<TokenData> find(String token) {
+        String digest = TokenDigest.sha256Base64Url(token);
+        CachedToken cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            staleness.record(System.nanoTime() - cached.loadedAtNanos(), TimeUnit.NANOSECONDS);
+            return Optional.of(cached.data());
+        }
+
+        Optional<TokenData> found = delegate.find(token);
+        found.ifPresent(data -> cache.put(digest, new CachedToken(data, System.nanoTime())));
+        return found;
+    }
+
+    @Override
+    public List<TokenData> findSessions(String userId) {
+        return delegate.findSessions(userId);
+    }
+
+    @Override
+    public void delete(String token) {
+        delegate.delete(token);
+        invalidateTokens(List.of(TokenDigest.sha256Base64Url(token)));
+    }
+
+    @Override
+    public void deleteAll(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        delegate.deleteAll(tokens);
+        invalidateTokens(tokens.stream()
+                .map(TokenDigest::sha256Base64Url)
+                .toList());
+    }
+
+    @Override
+    public List<String> deleteAllForUser(String userId) {
+        List<String> removed = delegate.deleteAllForUser(userId);
+        if (!removed.isEmpty()) {
+            invalidateTokens(removed.stream()
+                    .map(TokenDigest::sha256Base64Url)
+                    .toList());
+        }
+        return removed;
+    }
+
+    @Override
+    public void deny(String tokenId, String userId, Instant expiresAt) {
+        delegate.deny(tokenId, userId, expiresAt);
+    }
+
+    @Override
+    public void denyIssuedBefore(String userId, Instant cutoff, Instant until) {
+        delegate.denyIssuedBefore(userId, cutoff, until);
+    }
+
+    /**
+     * Always answered by Redis: caching a "not denied" answer would delay revocations.
+     */
+    @Override
+    public boolean isDenied(String tokenId, String userId, Instant issuedAt) {
+        return delegate.isDenied(tokenId, userId, issuedAt);
+    }
+
+    /**
+     * Applies an invalidation published by another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        long publishedAtMillis;
+        try {
+            publishedAtMillis = Long.parseLong(parts[0]);
+        } catch (NumberFormatException e) {
+            publishedAtMillis = -1;
+        }
+        if (parts.length != 4 || publishedAtMillis < 0) {
+            log.warn("[NearCachedTokenCacheRepository] Ignoring malformed invalidation message");
+            return;
+        }
+        if (nodeId.equals(parts[1])) {
+            return;
+        }
+
+        if (!TOKEN_SCOPE.equals(parts[2])) {
+            log.warn("[NearCachedTokenCacheRepository] Ignoring invalidation with unknown scope: {}", parts[2]);
+            return;
+        }
+        cache.invalidateAll(Arrays.asList(parts[3].split(",")));
+        tokenInvalidations.increment();
+
+        long lagMillis = System.currentTimeMillis() - publishedAtMillis;
+        invalidationLag.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void invalidateTokens(List<String> digests) {
+        cache.invalidateAll(digests);
+        publish(TOKEN_SCOPE, String.join(",", digests));
+    }
+
+    private void publish(String scope, String payload) {
+        try {
+            redisStringTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    System.currentTimeMillis() + "|" + nodeId + "|" + scope + "|" + payload);
+        } catch (RuntimeException e) {
+            // Other nodes still drop the entry once maxStaleness has elapsed
+            log.warn("[NearCachedTokenCacheRepository] Failed to publish token invalidation: {}", e.getMessage());
+        }
+    }
+
+    private static Duration timeToLive(CachedToken entry, Duration maxStaleness) {
+        Instant expiresAt = entry.data().expiresAt();
+        if (expiresAt == null) {
+            return maxStaleness;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return Duration.ZERO;
+        }
+        return remaining.compareTo(maxStaleness) < 0 ? remaining : maxStaleness;
+    }
+
+    private record CachedToken(TokenData data, long loadedAtNanos) {
+    }
+}
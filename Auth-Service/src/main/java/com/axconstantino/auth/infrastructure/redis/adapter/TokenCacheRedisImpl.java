@@ -1,17 +1,38 @@
 package com.axconstantino.auth.infrastructure.redis.adapter;
 
-import com.axconstantino.auth.domain.model.Token;
 import com.axconstantino.auth.domain.repository.TokenCacheRepository;
 import com.axconstantino.auth.infrastructure.persistence.mapper.RedisTokenMapper;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
 import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
 import com.axconstantino.auth.infrastructure.redis.model.TokenData;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Redis token store. Keys follow {@link RedisKeyLayout}, so every multi-key command or script only touches
+ * the keys of a single user and runs unchanged against Redis Cluster.
+ * <p>
+ * The scripts listing and deleting a user's tokens build the token keys from the members of the user's index
+ * instead of receiving them in {@code KEYS}, since they are only known once the index is read. The key prefix
+ * they are given carries the index key's hash tag, so the keys stay in the slot of the one declared key.
+ * </p>
+ */
 @RequiredArgsConstructor
 public class TokenCacheRedisImpl implements TokenCacheRepository {
 
@@ -20,51 +41,224 @@ public class TokenCacheRedisImpl implements TokenCacheRepository {
     private final RedisTokenMapper mapper;
 
 
-    private static final String TOKEN_PREFIX = "auth:token:";
-    private static final String USER_PREFIX = "auth:user:";
+    /**
+     * SET PX + ZADD scored by expiry (pruning expired members) for any number of tokens, executed atomically by
+     * EVALSHA in one round trip.
+     */
+    private static final RedisScript<Long> SAVE_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/save-tokens.lua"), Long.class);
+    /**
+     * ZRANGE + chunked UNLINK of every token of a user, executed atomically in one round trip.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DELETE_USER_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/delete-user-tokens.lua"), List.class);
+    /**
+     * ZRANGEBYSCORE over the live part of a user's index + GET of each token, in one round trip.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LIST_SESSIONS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/list-sessions.lua"), List.class);
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
 
     @Override
     public void save(TokenData tokenData, long ttl, TimeUnit unit) {
-        String tokenKey = TOKEN_PREFIX + tokenData.tokenValue();
-        String userKey = USER_PREFIX + tokenData.userId();
+        writeTokens(List.of(tokenData), List.of(unit.toMillis(ttl)));
+    }
+
+    /**
+     * Stores all tokens with a TTL matching each token's expiration, in a single atomic round trip.
+     * Tokens that are already expired are skipped.
+     */
+    @Override
+    public void saveAll(List<TokenData> tokens) {
+        Instant now = Instant.now();
+        List<TokenData> live = new ArrayList<>(tokens.size());
+        List<Long> ttls = new ArrayList<>(tokens.size());
+
+        for (TokenData token : tokens) {
+            long ttl = Duration.between(now, token.expiresAt()).toMillis();
+            if (ttl > 0) {
+                live.add(token);
+                ttls.add(ttl);
+            }
+        }
+
+        if (!live.isEmpty()) {
+            writeTokens(live, ttls);
+        }
+    }
+
+    /**
+     * Runs the save script once per user, the unit a single script may touch on a cluster.
+     */
+    private void writeTokens(List<TokenData> tokens, List<Long> ttlsMillis) {
+        Map<String, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            indexesByUser.computeIfAbsent(tokens.get(i).userId(), userId -> new ArrayList<>()).add(i);
+        }
 
-        RedisTokenEntity entity = RedisTokenEntity.builder()
+        indexesByUser.forEach((userId, indexes) -> writeUserTokens(userId,
+                indexes.stream().map(tokens::get).toList(),
+                indexes.stream().map(ttlsMillis::get).toList()));
+    }
+
+    private void writeUserTokens(String userId, List<TokenData> tokens, List<Long> ttlsMillis) {
+        RedisSerializer<RedisTokenEntity> valueSerializer = valueSerializer();
+        List<String> keys = new ArrayList<>(tokens.size() * 2);
+        Object[] args = new Object[1 + tokens.size() * 3];
+        args[0] = utf8(Long.toString(System.currentTimeMillis()));
+
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenData tokenData = tokens.get(i);
+            keys.add(RedisKeyLayout.tokenKey(userId, tokenData.tokenValue()));
+            keys.add(RedisKeyLayout.userIndexKey(userId));
+
+            args[1 + 3 * i] = valueSerializer.serialize(toEntity(tokenData));
+            args[2 + 3 * i] = utf8(Long.toString(ttlsMillis.get(i)));
+            args[3 + 3 * i] = utf8(tokenData.tokenValue());
+        }
+
+        redisTemplate.execute(SAVE_TOKENS_SCRIPT, RedisSerializer.byteArray(), LONG_SERIALIZER, keys, args);
+    }
+
+    private static RedisTokenEntity toEntity(TokenData tokenData) {
+        return RedisTokenEntity.builder()
                 .token(tokenData.tokenValue())
+                .type(tokenData.type())
                 .userId(tokenData.userId())
                 .active(tokenData.active())
                 .expiresAt(tokenData.expiresAt())
                 .ipAddress(tokenData.ipAddress())
                 .userAgent(tokenData.userAgent())
+                .subject(tokenData.subject())
+                .roles(tokenData.roles())
+                .sessionId(tokenData.sessionId())
                 .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<RedisTokenEntity> valueSerializer() {
+        return (RedisSerializer<RedisTokenEntity>) redisTemplate.getValueSerializer();
+    }
 
-        redisTemplate.opsForValue().set(tokenKey, entity, ttl, unit);
-        redisStringTemplate.opsForSet().add(userKey, tokenData.tokenValue());
-        redisStringTemplate.expire(userKey, ttl, unit);
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
-    public Optional<Token> find(String token) {
-        RedisTokenEntity data = redisTemplate.opsForValue().get(TOKEN_PREFIX + token);
-        return Optional.ofNullable(data)
-                .map(mapper::toDomain);
+    public Optional<TokenData> find(String token) {
+        RedisTokenEntity data = redisTemplate.opsForValue().get(RedisKeyLayout.tokenKey(token));
+        if (data == null) {
+            return Optional.empty();
+        }
+        // The stored value does not repeat the token, it is the key
+        data.setToken(token);
+        return Optional.of(mapper.toData(data));
     }
 
     @Override
     public void delete(String token) {
-        redisTemplate.delete(TOKEN_PREFIX + token);
+        redisTemplate.delete(RedisKeyLayout.tokenKey(token));
     }
 
+    /**
+     * Lists the user's live sessions, soonest to expire first, from the sorted index without scanning. Index
+     * members whose token has expired or was deleted on its own are pruned while reading.
+     */
     @Override
-    public void deleteAllForUser(String userId) {
-        String userKey = USER_PREFIX + userId;
-        Set<String> tokens = redisStringTemplate.opsForSet().members(userKey);
+    @SuppressWarnings("unchecked")
+    public List<TokenData> findSessions(String userId) {
+        List<byte[]> pairs = redisTemplate.execute(LIST_SESSIONS_SCRIPT, RedisSerializer.byteArray(),
+                (RedisSerializer<List>) (RedisSerializer<?>) RedisSerializer.byteArray(),
+                List.of(RedisKeyLayout.userIndexKey(userId)),
+                utf8(Long.toString(System.currentTimeMillis())),
+                utf8(RedisKeyLayout.tokenKeyPrefix(RedisKeyLayout.userTag(userId))));
+        if (pairs == null || pairs.isEmpty()) {
+            return List.of();
+        }
 
-        if (tokens != null) {
-            for (String token : tokens) {
-                redisTemplate.delete(TOKEN_PREFIX + token);
-            }
+        RedisSerializer<RedisTokenEntity> valueSerializer = valueSerializer();
+        List<TokenData> sessions = new ArrayList<>(pairs.size() / 2);
+        for (int i = 0; i + 1 < pairs.size(); i += 2) {
+            RedisTokenEntity entity = valueSerializer.deserialize(pairs.get(i + 1));
+            entity.setToken(new String(pairs.get(i), StandardCharsets.UTF_8));
+            sessions.add(mapper.toData(entity));
+        }
+        return sessions;
+    }
+
+    /**
+     * Removes the given tokens with one UNLINK per slot, so memory is reclaimed in the background. Tokens of a
+     * single user, the usual case, share a slot and take a single command.
+     */
+    @Override
+    public void deleteAll(Collection<String> tokens) {
+        tokens.stream()
+                .map(RedisKeyLayout::tokenKey)
+                .collect(Collectors.groupingBy(key -> key.substring(0, key.indexOf('}') + 1)))
+                .values()
+                .forEach(redisTemplate::unlink);
+    }
+
+    /**
+     * Removes every token indexed for the user, and the index itself, with one server-side script.
+     *
+     * @return the tokens removed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> deleteAllForUser(String userId) {
+        List<byte[]> removed = redisTemplate.execute(DELETE_USER_TOKENS_SCRIPT, RedisSerializer.byteArray(),
+                (RedisSerializer<List>) (RedisSerializer<?>) RedisSerializer.byteArray(),
+                List.of(RedisKeyLayout.userIndexKey(userId)),
+                utf8(RedisKeyLayout.tokenKeyPrefix(RedisKeyLayout.userTag(userId))));
+        if (removed == null) {
+            return List.of();
+        }
+        return removed.stream()
+                .map(token -> new String(token, StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    /**
+     * Denylists a revoked token by its {@code jti} until the moment the token would have expired anyway.
+     */
+    @Override
+    public void deny(String tokenId, String userId, Instant expiresAt) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (!ttl.isNegative() && !ttl.isZero()) {
+            redisStringTemplate.opsForValue().set(RedisKeyLayout.revokedKey(userId, tokenId), "1", ttl);
         }
+    }
 
-        redisStringTemplate.delete(userKey);
+    /**
+     * Denies every token of the user issued strictly before {@code cutoff}, with a single key kept until
+     * {@code until}, when the last of those tokens has expired.
+     */
+    @Override
+    public void denyIssuedBefore(String userId, Instant cutoff, Instant until) {
+        Duration ttl = Duration.between(Instant.now(), until);
+        if (!ttl.isNegative() && !ttl.isZero()) {
+            redisStringTemplate.opsForValue().set(RedisKeyLayout.revokedBeforeKey(userId), Long.toString(cutoff.getEpochSecond()), ttl);
+        }
+    }
+
+    /**
+     * Checks both the {@code jti} denylist and the user's issued-before cutoff with one MGET.
+     */
+    @Override
+    public boolean isDenied(String tokenId, String userId, Instant issuedAt) {
+        List<String> values = redisStringTemplate.opsForValue().multiGet(List.of(
+                RedisKeyLayout.revokedKey(userId, tokenId != null ? tokenId : ""),
+                RedisKeyLayout.revokedBeforeKey(userId)));
+        if (values == null) {
+            return false;
+        }
+        if (tokenId != null && values.get(0) != null) {
+            return true;
+        }
+        String cutoff = values.get(1);
+        return cutoff != null && issuedAt.getEpochSecond() < Long.parseLong(cutoff);
     }
 }
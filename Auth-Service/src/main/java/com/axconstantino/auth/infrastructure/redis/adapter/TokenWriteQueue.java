@@ -0,0 +1,330 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.axconstantino.auth.infrastructure.redis.model.PendingToken;
+import com.axconstantino.auth.infrastructure.redis.model.TokenWrite;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable queue of the token writes deferred in write-behind mode, and the pending state of the tokens they
+ * concern.
+ * <p>
+ * Writes are appended to the Redis stream {@code auth:token-writes}, which a single node at a time drains into
+ * the database through the consumer group {@value #GROUP} (see
+ * {@link com.axconstantino.auth.infrastructure.token.TokenWriteBehindFlusher}). Entries are acknowledged and
+ * deleted once their batch is committed, so the stream length is the backlog and entries delivered to a node
+ * that died before committing are delivered again. Durability is that of the Redis deployment, which must
+ * persist to an append-only file for the queue to survive a Redis restart.
+ * </p>
+ * <p>
+ * Until its writes are in the database, a token also has an entry in its owner bucket's
+ * {@code auth:{tag}:pending-tokens} hash (see {@link PendingToken}), which lookups and revocations consult
+ * instead of the lagging database. Entries are removed as their writes are committed; the hash expires after
+ * {@code pendingTtl}, the longest a token lives, so entries orphaned by a crash never outlive their token.
+ * </p>
+ * <p>
+ * A revocation of all of a user's tokens also records the user's revoked-before cutoff in the bucket until it is
+ * written, since the tokens already in the database have no pending entry to mark.
+ * </p>
+ */
+@Slf4j
+public class TokenWriteQueue {
+
+    public static final String GROUP = "token-writer";
+
+    /**
+     * Every node reads under the same consumer name: only the lease holder reads, and it picks up the entries
+     * the previous holder left unacknowledged.
+     */
+    private static final String CONSUMER = "writer";
+
+    private static final RedisScript<Long> REVOKE_PENDING_TOKEN_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/revoke-pending-token.lua"), Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REVOKE_PENDING_USER_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/revoke-pending-user-tokens.lua"), List.class);
+    private static final RedisScript<Long> SETTLE_PENDING_TOKENS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/settle-pending-tokens.lua"), Long.class);
+    private static final RedisScript<Long> HOLD_LEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/hold-lease.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisStringTemplate;
+    private final Duration pendingTtl;
+    private final long capacity;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public TokenWriteQueue(RedisTemplate<String, String> redisStringTemplate, Duration pendingTtl, long capacity) {
+        this.redisStringTemplate = redisStringTemplate;
+        this.pendingTtl = pendingTtl;
+        this.capacity = capacity;
+    }
+
+    // --- Producer side ---
+
+    /**
+     * @return whether the backlog, as last measured, leaves room for more inserts
+     */
+    public boolean hasCapacity() {
+        return backlog.get() < capacity;
+    }
+
+    /**
+     * Records the tokens as pending and queues their inserts, in one round trip.
+     */
+    public void enqueueInserts(List<Token> tokens) {
+        String queueKey = RedisKeyLayout.tokenWriteQueueKey();
+        redisStringTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (Token token : tokens) {
+                    TokenWrite write = TokenWrite.insert(token);
+                    String pendingKey = RedisKeyLayout.pendingTokensKey(write.tag());
+                    ops.opsForHash().put(pendingKey, write.digests().get(0), PendingToken.active(token).encode());
+                    ops.expire(pendingKey, pendingTtl);
+                    ops.opsForStream().add(MapRecord.create(queueKey, write.toFields()));
+                }
+                return null;
+            }
+        });
+        backlog.addAndGet(tokens.size());
+    }
+
+    /**
+     * Marks the token revoked and queues the revocation, unless it was already revoked.
+     *
+     * @return true if the token is now revoked, false if it already was
+     */
+    public boolean enqueueRevoke(String token) {
+        TokenWrite write = TokenWrite.revoke(token);
+        Long revoked = redisStringTemplate.execute(REVOKE_PENDING_TOKEN_SCRIPT,
+                List.of(RedisKeyLayout.pendingTokensKey(write.tag())),
+                write.digests().get(0), Long.toString(pendingTtl.toMillis()));
+        if (revoked == null || revoked == 0) {
+            return false;
+        }
+        append(write);
+        return true;
+    }
+
+    /**
+     * Marks the user's pending tokens revoked, records the user's revoked-before cutoff and queues the revocation
+     * of all the user's tokens. The queued revocation is written after every write queued before it, so it also
+     * covers the tokens whose inserts are still pending; until it is written, the cutoff revokes the tokens
+     * already in the database (see {@link #findRevokedBefore(String)}).
+     * <p>
+     * The cutoff has the second precision of token issue times, as the denylist's does: tokens issued in the same
+     * second as the revocation stay valid until it is written.
+     * </p>
+     *
+     * @return the digests of the pending tokens revoked
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> enqueueRevokeAll(String userId) {
+        Instant cutoff = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        List<String> revoked = redisStringTemplate.execute(REVOKE_PENDING_USER_TOKENS_SCRIPT,
+                List.of(RedisKeyLayout.pendingTokensKey(RedisKeyLayout.userTag(userId))), userId,
+                PendingToken.revokedBeforeField(userId), Long.toString(cutoff.getEpochSecond()),
+                Long.toString(pendingTtl.toMillis()));
+        List<String> digests = revoked != null ? revoked : List.of();
+        append(TokenWrite.revokeAll(userId, digests, cutoff));
+        return digests;
+    }
+
+    /**
+     * @return the cutoff of the user's latest revocation of all tokens, as long as it is not yet written to the
+     * database; tokens of the user issued before it are revoked
+     */
+    public Optional<Instant> findRevokedBefore(String userId) {
+        Object value = redisStringTemplate.opsForHash().get(
+                RedisKeyLayout.pendingTokensKey(RedisKeyLayout.userTag(userId)), PendingToken.revokedBeforeField(userId));
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Instant.ofEpochSecond(Long.parseLong(value.toString())));
+        } catch (NumberFormatException e) {
+            log.warn("[TokenWriteQueue] Ignoring malformed revoked-before cutoff");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the pending state of the token, empty if none of its writes are queued
+     */
+    public Optional<PendingToken> findPending(String token) {
+        Object value = redisStringTemplate.opsForHash().get(
+                RedisKeyLayout.pendingTokensKey(RedisKeyLayout.tokenTag(token)), TokenDigest.sha256Base64Url(token));
+        if (value == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(PendingToken.decode(value.toString()));
+        } catch (IllegalArgumentException e) {
+            log.warn("[TokenWriteQueue] Ignoring malformed pending token entry");
+            return Optional.empty();
+        }
+    }
+
+    private void append(TokenWrite write) {
+        streamOps().add(MapRecord.create(RedisKeyLayout.tokenWriteQueueKey(), write.toFields()));
+        backlog.incrementAndGet();
+    }
+
+    // --- Consumer side ---
+
+    /**
+     * Measures the backlog, which producers compare to the capacity.
+     *
+     * @return the number of writes queued
+     */
+    public long refreshBacklog() {
+        Long size = streamOps().size(RedisKeyLayout.tokenWriteQueueKey());
+        backlog.set(size != null ? size : 0);
+        return backlog.get();
+    }
+
+    /**
+     * @return when the oldest queued write was enqueued, empty if the queue is empty
+     */
+    public Optional<Instant> oldestEnqueuedAt() {
+        List<MapRecord<String, String, String>> oldest = streamOps().range(RedisKeyLayout.tokenWriteQueueKey(),
+                Range.unbounded(), Limit.limit().count(1));
+        if (oldest == null || oldest.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(enqueuedAt(oldest.get(0).getId()));
+    }
+
+    /**
+     * Acquires the lease allowing a node to drain the queue, or extends it if this node already holds it.
+     *
+     * @return true if {@code owner} holds the lease
+     */
+    public boolean holdLease(String owner, Duration duration) {
+        Long held = redisStringTemplate.execute(HOLD_LEASE_SCRIPT, List.of(RedisKeyLayout.tokenWriteLeaseKey()),
+                owner, Long.toString(duration.toMillis()));
+        return held != null && held == 1;
+    }
+
+    /**
+     * Creates the stream and its consumer group if they do not exist yet.
+     */
+    public void createGroupIfAbsent() {
+        byte[] key = RedisKeyLayout.tokenWriteQueueKey().getBytes(StandardCharsets.UTF_8);
+        try {
+            redisStringTemplate.execute((RedisCallback<String>) (RedisConnection connection) ->
+                    connection.streamCommands().xGroupCreate(key, GROUP, ReadOffset.from("0"), true));
+        } catch (RedisSystemException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads the next writes in queue order: first those delivered before but never acknowledged, left over by a
+     * node that failed before committing them, then new ones.
+     */
+    public List<MapRecord<String, String, String>> read(int count) {
+        List<MapRecord<String, String, String>> unacknowledged = read(count, ReadOffset.from("0"));
+        if (!unacknowledged.isEmpty()) {
+            return unacknowledged;
+        }
+        return read(count, ReadOffset.lastConsumed());
+    }
+
+    private List<MapRecord<String, String, String>> read(int count, ReadOffset offset) {
+        List<MapRecord<String, String, String>> records = streamOps().read(Consumer.from(GROUP, CONSUMER),
+                StreamReadOptions.empty().count(count), StreamOffset.create(RedisKeyLayout.tokenWriteQueueKey(), offset));
+        return records != null ? records : List.of();
+    }
+
+    /**
+     * Removes written entries from the queue.
+     */
+    public void complete(Collection<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        RecordId[] idArray = ids.toArray(RecordId[]::new);
+        streamOps().acknowledge(RedisKeyLayout.tokenWriteQueueKey(), GROUP, idArray);
+        streamOps().delete(RedisKeyLayout.tokenWriteQueueKey(), idArray);
+    }
+
+    /**
+     * Removes the pending entries of tokens whose writes were committed, once per bucket.
+     */
+    public void settle(List<TokenWrite> writes) {
+        Map<String, List<String>> argsByTag = new LinkedHashMap<>();
+        for (TokenWrite write : writes) {
+            List<String> args = argsByTag.computeIfAbsent(write.tag(), tag -> new ArrayList<>());
+            for (String digest : write.digests()) {
+                args.add(digest);
+                args.add(String.valueOf(write.settledState()));
+            }
+            if (write.operation() == TokenWrite.Operation.REVOKE_ALL && write.issuedAt() != null) {
+                args.add(PendingToken.revokedBeforeField(write.userId()));
+                args.add(Long.toString(write.issuedAt().getEpochSecond()));
+            }
+        }
+
+        argsByTag.forEach((tag, args) -> {
+            if (args.isEmpty()) {
+                return;
+            }
+            try {
+                redisStringTemplate.execute(SETTLE_PENDING_TOKENS_SCRIPT,
+                        List.of(RedisKeyLayout.pendingTokensKey(tag)), args.toArray());
+            } catch (DataAccessException e) {
+                // The entries still expire with their bucket; until then lookups are answered from them
+                log.warn("[TokenWriteQueue] Failed to settle pending tokens of bucket {}: {}", tag, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return when the entry was appended, from the millisecond part of its id
+     */
+    public static Instant enqueuedAt(RecordId id) {
+        return Instant.ofEpochMilli(id.getTimestamp());
+    }
+
+    private StreamOperations<String, String, String> streamOps() {
+        return redisStringTemplate.opsForStream();
+    }
+}
@@ -0,0 +1,169 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.exception.TokenStoreUnavailableException;
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.repository.TokenRepository;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.axconstantino.auth.infrastructure.redis.model.PendingToken;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Write-behind {@link TokenRepository}: token writes are queued in Redis and written to the database in batches
+ * by {@link com.axconstantino.auth.infrastructure.token.TokenWriteBehindFlusher}, so issuing and revoking tokens
+ * never waits for a database commit.
+ * <p>
+ * Redis is the source of truth for the tokens whose writes are still queued (see {@link TokenWriteQueue}):
+ * <ul>
+ *     <li>inserts are queued once the surrounding transaction commits, so the tokens of a registration rolled
+ *     back are never written. When the queue is full they are rejected with
+ *     {@link TokenStoreUnavailableException} rather than written directly, which would let them overtake
+ *     revocations still queued</li>
+ *     <li>revocations are decided atomically in Redis and always queued, each at most once; callers only revoke
+ *     tokens they have found valid</li>
+ *     <li>lookups by token are answered from the pending state, and only reach the database once the token's
+ *     writes are there</li>
+ *     <li>a revocation of all of a user's tokens also records a revoked-before cutoff, which lookups and
+ *     revocations apply to the tokens already in the database until the revocation is written there too</li>
+ * </ul>
+ * Queries by user and the expiry purge read the database only, which lags by up to the flush lag.
+ * </p>
+ * <p>
+ * {@code auth.token.write-behind.rejected} counts the inserts rejected because the queue was full.
+ * </p>
+ */
+public class WriteBehindTokenRepository implements TokenRepository {
+
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private final TokenRepository delegate;
+    private final TokenWriteQueue queue;
+    private final UserRepository userRepository;
+    private final Counter rejected;
+
+    public WriteBehindTokenRepository(TokenRepository delegate,
+                                      TokenWriteQueue queue,
+                                      UserRepository userRepository,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.queue = queue;
+        this.userRepository = userRepository;
+        this.rejected = Counter.builder("auth.token.write-behind.rejected")
+                .description("Token inserts rejected because the write-behind queue was full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Token> findByToken(String token) {
+        Optional<Token> found = findIgnoringCutoff(token);
+        found.filter(Token::isActive)
+                .filter(this::issuedBeforeRevokedBefore)
+                .ifPresent(Token::revoke);
+        return found;
+    }
+
+    private Optional<Token> findIgnoringCutoff(String token) {
+        Optional<PendingToken> pending = queue.findPending(token);
+        if (pending.isEmpty()) {
+            return delegate.findByToken(token);
+        }
+
+        PendingToken state = pending.get();
+        if (!state.hasMetadata()) {
+            // Revoked after its insert was written
+            Optional<Token> stored = delegate.findByToken(token);
+            stored.ifPresent(Token::revoke);
+            return stored;
+        }
+        return userRepository.findById(UUID.fromString(state.userId()))
+                .map(user -> new Token(token, TokenDigest.sha256(token), state.type(), state.issuedAt(),
+                        state.expiresAt(), null, null, !state.revoked(), user));
+    }
+
+    /**
+     * @return whether the token was issued before a revocation of all its owner's tokens that the database may
+     * not reflect yet
+     */
+    private boolean issuedBeforeRevokedBefore(Token token) {
+        if (token.getUser() == null || token.getIssuedAt() == null) {
+            return false;
+        }
+        return queue.findRevokedBefore(token.getUser().getId().toString())
+                .map(cutoff -> token.getIssuedAt().getEpochSecond() < cutoff.getEpochSecond())
+                .orElse(false);
+    }
+
+    @Override
+    public List<Token> findAllValidTokensByUser(UUID userId) {
+        return delegate.findAllValidTokensByUser(userId);
+    }
+
+    @Override
+    public void saveAll(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (!queue.hasCapacity()) {
+            rejected.increment(tokens.size());
+            throw new TokenStoreUnavailableException("Token write queue is full");
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queue.enqueueInserts(tokens);
+                }
+            });
+        } else {
+            queue.enqueueInserts(tokens);
+        }
+    }
+
+    @Override
+    public void save(Token token) {
+        saveAll(List.of(token));
+    }
+
+    /**
+     * Only the digests of the tokens still pending are known without querying the database, so only those are
+     * returned; the tokens already written are revoked as well once the revocation is.
+     */
+    @Override
+    public List<byte[]> revokeAllByUser(UUID userId) {
+        return queue.enqueueRevokeAll(userId.toString()).stream()
+                .map(BASE64_URL::decode)
+                .toList();
+    }
+
+    /**
+     * A token already revoked by its owner's revoked-before cutoff is not revoked again, which costs a lookup of
+     * the token first.
+     */
+    @Override
+    public boolean revoke(String token) {
+        if (findByToken(token).filter(found -> !found.isActive()).isPresent()) {
+            return false;
+        }
+        return queue.enqueueRevoke(token);
+    }
+
+    @Override
+    public int deleteExpiredBefore(Instant cutoff, int limit) {
+        return delegate.deleteExpiredBefore(cutoff, limit);
+    }
+
+    @Override
+    public Optional<Instant> findEarliestExpiry() {
+        return delegate.findEarliestExpiry();
+    }
+}
@@ -0,0 +1,46 @@
+package com.axconstantino.auth.infrastructure.redis.model;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a {@link User} as held by both tiers of the user cache, without its tokens and password
+ * hash. Every cache hit builds a new {@link User} from it, so callers never share or mutate a cached instance.
+ * <p>
+ * Unknown properties are ignored so entries written by older versions, which still carried the password hash, are
+ * read without it until they expire.
+ * </p>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CachedUser(
+        UUID id,
+        String userName,
+        String email,
+        Set<Role> roles,
+        boolean active,
+        boolean emailVerified,
+        Instant deletedAt
+) {
+
+    public CachedUser {
+        roles = Set.copyOf(roles);
+    }
+
+    public static CachedUser from(User user) {
+        return new CachedUser(user.getId(), user.getUserName(), user.getEmail(), user.getRoles(),
+                user.isActive(), user.isEmailVerified(), user.getDeletedAt());
+    }
+
+    /**
+     * @return a new user without a password hash, which therefore cannot be saved
+     */
+    public User toUser() {
+        return new User(id, userName, email, null, roles, active, emailVerified, deletedAt, new HashSet<>());
+    }
+}
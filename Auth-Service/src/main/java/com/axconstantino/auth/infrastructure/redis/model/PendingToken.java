@@ -0,0 +1,71 @@
+package com.axconstantino.auth.infrastructure.redis.model;
+
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.TokenType;
+
+import java.time.Instant;
+
+/**
+ * State of a token whose writes are still queued for the database, as kept in its bucket of pending tokens.
+ * <p>
+ * Encoded as {@code <state>|<userId>|<type>|<issuedAtMillis>|<expiresAtMillis>}, where the state is {@code A}
+ * (active) or {@code R} (revoked). A token revoked after it was written to the database is recorded as a bare
+ * {@code R}, with no metadata.
+ * </p>
+ * <p>
+ * The bucket also holds, under {@link #revokedBeforeField(String)}, the cutoff of each owner whose tokens were all
+ * revoked while the revocation is still queued: tokens of that owner issued before it are revoked.
+ * </p>
+ */
+public record PendingToken(
+        boolean revoked,
+        String userId,
+        TokenType type,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public static final char ACTIVE = 'A';
+    public static final char REVOKED = 'R';
+
+    /**
+     * @return the bucket field holding the user's revoked-before cutoff, in epoch seconds
+     */
+    public static String revokedBeforeField(String userId) {
+        return "revoked-before:" + userId;
+    }
+
+    public static PendingToken active(Token token) {
+        return new PendingToken(false, token.getUser().getId().toString(), token.getTokenType(),
+                token.getIssuedAt(), token.getExpiresAt());
+    }
+
+    /**
+     * @return whether the entry carries the token's metadata, which a bare revocation does not
+     */
+    public boolean hasMetadata() {
+        return userId != null;
+    }
+
+    public String encode() {
+        return (revoked ? REVOKED : ACTIVE) + "|" + userId + "|" + type + "|" + issuedAt.toEpochMilli() + "|"
+                + (expiresAt != null ? expiresAt.toEpochMilli() : "");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not an encoded pending token
+     */
+    public static PendingToken decode(String value) {
+        String[] parts = value.split("\\|", -1);
+        boolean revoked = parts[0].equals(String.valueOf(REVOKED));
+        if (parts.length == 1 && revoked) {
+            return new PendingToken(true, null, null, null, null);
+        }
+        if (parts.length != 5 || !(revoked || parts[0].equals(String.valueOf(ACTIVE)))) {
+            throw new IllegalArgumentException("Malformed pending token");
+        }
+        return new PendingToken(revoked, parts[1], TokenType.valueOf(parts[2]),
+                Instant.ofEpochMilli(Long.parseLong(parts[3])),
+                parts[4].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(parts[4])));
+    }
+}
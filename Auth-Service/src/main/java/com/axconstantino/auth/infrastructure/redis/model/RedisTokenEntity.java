@@ -1,5 +1,6 @@
 package com.axconstantino.auth.infrastructure.redis.model;
 
+import com.axconstantino.auth.domain.model.TokenType;
 import lombok.*;
 import org.springframework.data.redis.core.RedisHash;
 
@@ -13,9 +14,13 @@ import java.time.Instant;
 @RedisHash("token")
 public class RedisTokenEntity implements Serializable {
     private String token;
+    private TokenType type;
     private String userId;
     private boolean active;
     private Instant expiresAt;
     private String ipAddress;
     private String userAgent;
+    private String subject;
+    private String roles;
+    private String sessionId;
 }
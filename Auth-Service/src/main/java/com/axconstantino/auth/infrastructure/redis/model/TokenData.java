@@ -1,12 +1,24 @@
 package com.axconstantino.auth.infrastructure.redis.model;
 
+import com.axconstantino.auth.domain.model.TokenType;
+
 import java.time.Instant;
 
+/**
+ * A token held in the token store.
+ *
+ * @param sessionId the session the token belongs to, shared by the access and refresh token issued together and
+ *                  kept across refreshes; null for entries written before tokens carried one
+ */
 public record TokenData(
         String userId,
         String tokenValue,
+        TokenType type,
         boolean active,
         Instant expiresAt,
         String ipAddress,
-        String userAgent
+        String userAgent,
+        String subject,
+        String roles,
+        String sessionId
 ) {}
\ No newline at end of file
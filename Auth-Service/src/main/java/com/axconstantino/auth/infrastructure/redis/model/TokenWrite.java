@@ -0,0 +1,134 @@
+package com.axconstantino.auth.infrastructure.redis.model;
+
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A token write queued for the database in write-behind mode, as stored in an entry of the write queue.
+ * <p>
+ * Tokens are identified by their base64url SHA-256 digest, raw tokens are never queued. {@code tag} is the
+ * bucket of the token's owner, which locates its pending entries.
+ * </p>
+ *
+ * @param operation the write to apply
+ * @param tag       the owner's bucket, see {@link RedisKeyLayout#userTag(String)}
+ * @param userId    the owner, null for single revocations which only know the token
+ * @param digests   the token written or revoked; for {@link Operation#REVOKE_ALL}, the pending tokens it revoked
+ * @param type      token metadata, only present on inserts
+ * @param issuedAt  token metadata on inserts; for {@link Operation#REVOKE_ALL}, the revoked-before cutoff it
+ *                  recorded
+ * @param expiresAt token metadata, only present on inserts
+ * @param ipAddress token metadata, only present on inserts
+ * @param userAgent token metadata, only present on inserts
+ */
+public record TokenWrite(
+        Operation operation,
+        String tag,
+        String userId,
+        List<String> digests,
+        TokenType type,
+        Instant issuedAt,
+        Instant expiresAt,
+        String ipAddress,
+        String userAgent
+) {
+
+    public enum Operation {
+        /** Inserts a newly issued token. */
+        INSERT,
+        /** Revokes a single token. */
+        REVOKE,
+        /** Revokes all active tokens of a user. */
+        REVOKE_ALL
+    }
+
+    public static TokenWrite insert(Token token) {
+        String userId = token.getUser().getId().toString();
+        return new TokenWrite(Operation.INSERT, RedisKeyLayout.userTag(userId), userId,
+                List.of(TokenDigest.toBase64Url(token.getTokenHash())), token.getTokenType(), token.getIssuedAt(),
+                token.getExpiresAt(), token.getIpAddress(), token.getUserAgent());
+    }
+
+    public static TokenWrite revoke(String token) {
+        return new TokenWrite(Operation.REVOKE, RedisKeyLayout.tokenTag(token), null,
+                List.of(TokenDigest.sha256Base64Url(token)), null, null, null, null, null);
+    }
+
+    public static TokenWrite revokeAll(String userId, List<String> pendingDigests, Instant cutoff) {
+        return new TokenWrite(Operation.REVOKE_ALL, RedisKeyLayout.userTag(userId), userId, pendingDigests,
+                null, cutoff, null, null, null);
+    }
+
+    /**
+     * @return the state in which the pending entries of {@link #digests()} are settled by this write
+     */
+    public char settledState() {
+        return operation == Operation.INSERT ? PendingToken.ACTIVE : PendingToken.REVOKED;
+    }
+
+    public Map<String, String> toFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("op", operation.name());
+        fields.put("tag", tag);
+        putIfPresent(fields, "user", userId);
+        fields.put("digests", String.join(",", digests));
+        putIfPresent(fields, "type", type != null ? type.name() : null);
+        putIfPresent(fields, "iat", issuedAt != null ? Long.toString(issuedAt.toEpochMilli()) : null);
+        putIfPresent(fields, "exp", expiresAt != null ? Long.toString(expiresAt.toEpochMilli()) : null);
+        putIfPresent(fields, "ip", ipAddress);
+        putIfPresent(fields, "ua", userAgent);
+        return fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the fields do not describe a valid write
+     */
+    public static TokenWrite fromFields(Map<String, String> fields) {
+        Operation operation = Operation.valueOf(required(fields, "op"));
+        String digests = fields.getOrDefault("digests", "");
+        TokenWrite write = new TokenWrite(
+                operation,
+                required(fields, "tag"),
+                fields.get("user"),
+                digests.isEmpty() ? List.of() : Arrays.asList(digests.split(",")),
+                fields.containsKey("type") ? TokenType.valueOf(fields.get("type")) : null,
+                fields.containsKey("iat") ? Instant.ofEpochMilli(Long.parseLong(fields.get("iat"))) : null,
+                fields.containsKey("exp") ? Instant.ofEpochMilli(Long.parseLong(fields.get("exp"))) : null,
+                fields.get("ip"),
+                fields.get("ua")
+        );
+
+        boolean complete = switch (operation) {
+            case INSERT -> write.userId != null && write.digests.size() == 1 && write.type != null
+                    && write.issuedAt != null;
+            case REVOKE -> write.digests.size() == 1;
+            case REVOKE_ALL -> write.userId != null;
+        };
+        if (!complete) {
+            throw new IllegalArgumentException("Incomplete " + operation + " token write");
+        }
+        return write;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing token write field: " + name);
+        }
+        return value;
+    }
+
+    private static void putIfPresent(Map<String, String> fields, String name, String value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
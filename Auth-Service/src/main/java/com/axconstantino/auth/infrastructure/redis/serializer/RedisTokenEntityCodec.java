@@ -0,0 +1,207 @@
+package com.axconstantino.auth.infrastructure.redis.serializer;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Compact binary {@link RedisSerializer} for the values stored under token entries ({@code auth:{tag}:token:*}).
+ * <p>
+ * Layout of version 3:
+ * <ul>
+ *     <li>1 byte format version</li>
+ *     <li>1 byte flags: {@code active}, whether {@code userId} is a UUID, whether {@code expiresAt} is set</li>
+ *     <li>1 byte token type: {@code 0} when unset, {@code 1} access token, {@code 2} refresh token</li>
+ *     <li>{@code userId}: 16 raw bytes when it is a UUID, otherwise a string</li>
+ *     <li>{@code expiresAt}: 8 byte epoch milliseconds, when set</li>
+ *     <li>{@code ipAddress}, {@code userAgent}, {@code subject}, {@code roles}: strings</li>
+ *     <li>{@code sessionId}: string</li>
+ * </ul>
+ * Every version is still read: version 2 is the same layout without {@code sessionId}, and version 1 has neither
+ * {@code sessionId} nor the token type byte.
+ * Strings are written as a varint of {@code length + 1} followed by UTF-8 bytes, {@code 0} meaning null.
+ * </p>
+ * <p>
+ * The token itself is not written: it is already part of the Redis key, and the adapter restores it from
+ * there after reading. New fields must be appended under a new version so entries written by older
+ * instances stay readable until they expire.
+ * </p>
+ */
+public final class RedisTokenEntityCodec implements RedisSerializer<RedisTokenEntity> {
+
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+    static final byte VERSION_3 = 3;
+
+    private static final int FLAG_ACTIVE = 0x01;
+    private static final int FLAG_UUID_USER_ID = 0x02;
+    private static final int FLAG_EXPIRES_AT = 0x04;
+
+    private static final int TYPE_UNSET = 0;
+    private static final int TYPE_ACCESS_TOKEN = 1;
+    private static final int TYPE_REFRESH_TOKEN = 2;
+
+    @Override
+    public byte[] serialize(RedisTokenEntity entity) throws SerializationException {
+        if (entity == null) {
+            return new byte[0];
+        }
+
+        UUID userUuid = parseUuid(entity.getUserId());
+        int flags = (entity.isActive() ? FLAG_ACTIVE : 0)
+                | (userUuid != null ? FLAG_UUID_USER_ID : 0)
+                | (entity.getExpiresAt() != null ? FLAG_EXPIRES_AT : 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION_3);
+        out.write(flags);
+        out.write(typeCode(entity.getType()));
+
+        if (userUuid != null) {
+            writeLong(out, userUuid.getMostSignificantBits());
+            writeLong(out, userUuid.getLeastSignificantBits());
+        } else {
+            writeString(out, entity.getUserId());
+        }
+        if (entity.getExpiresAt() != null) {
+            writeLong(out, entity.getExpiresAt().toEpochMilli());
+        }
+        writeString(out, entity.getIpAddress());
+        writeString(out, entity.getUserAgent());
+        writeString(out, entity.getSubject());
+        writeString(out, entity.getRoles());
+        writeString(out, entity.getSessionId());
+
+        return out.toByteArray();
+    }
+
+    @Override
+    public RedisTokenEntity deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version < VERSION_1 || version > VERSION_3) {
+            throw new SerializationException("Unsupported token entry format version: " + version);
+        }
+
+        try {
+            int flags = in.get();
+            RedisTokenEntity entity = new RedisTokenEntity();
+            entity.setActive((flags & FLAG_ACTIVE) != 0);
+            if (version >= VERSION_2) {
+                entity.setType(typeOf(in.get()));
+            }
+            entity.setUserId((flags & FLAG_UUID_USER_ID) != 0
+                    ? new UUID(in.getLong(), in.getLong()).toString()
+                    : readString(in));
+            if ((flags & FLAG_EXPIRES_AT) != 0) {
+                entity.setExpiresAt(Instant.ofEpochMilli(in.getLong()));
+            }
+            entity.setIpAddress(readString(in));
+            entity.setUserAgent(readString(in));
+            entity.setSubject(readString(in));
+            entity.setRoles(readString(in));
+            if (version >= VERSION_3) {
+                entity.setSessionId(readString(in));
+            }
+            return entity;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Truncated or corrupt token entry", e);
+        }
+    }
+
+    /**
+     * Explicit codes rather than ordinals, so reordering {@link TokenType} cannot change the meaning of stored entries.
+     */
+    private static int typeCode(TokenType type) {
+        if (type == null) {
+            return TYPE_UNSET;
+        }
+        return switch (type) {
+            case ACCESS_TOKEN -> TYPE_ACCESS_TOKEN;
+            case REFRESH_TOKEN -> TYPE_REFRESH_TOKEN;
+        };
+    }
+
+    private static TokenType typeOf(int code) {
+        return switch (code) {
+            case TYPE_UNSET -> null;
+            case TYPE_ACCESS_TOKEN -> TokenType.ACCESS_TOKEN;
+            case TYPE_REFRESH_TOKEN -> TokenType.REFRESH_TOKEN;
+            default -> throw new IllegalArgumentException("Unknown token type code: " + code);
+        };
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(value);
+            // Only take the 16 byte form if it renders back to exactly the same string
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length + 1);
+        out.writeBytes(utf8);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("String length exceeds entry size");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
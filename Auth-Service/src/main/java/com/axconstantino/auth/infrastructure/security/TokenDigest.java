@@ -0,0 +1,53 @@
+package com.axconstantino.auth.infrastructure.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Computes fixed-length SHA-256 digests of token strings.
+ * <p>
+ * Digests are used as lookup keys instead of the raw tokens, which are long and should not be kept
+ * around in memory or logs more than necessary.
+ * </p>
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenDigest() {
+    }
+
+    /**
+     * @param token the raw token
+     * @return the 32-byte SHA-256 digest of the token
+     */
+    public static byte[] sha256(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token the raw token
+     * @return the SHA-256 digest of the token, encoded as 43 base64url characters
+     */
+    public static String sha256Base64Url(String token) {
+        return toBase64Url(sha256(token));
+    }
+
+    /**
+     * @param digest a digest returned by {@link #sha256(String)}
+     * @return the digest encoded as base64url, the same as {@link #sha256Base64Url(String)} of the token
+     */
+    public static String toBase64Url(byte[] digest) {
+        return BASE64_URL.encodeToString(digest);
+    }
+}
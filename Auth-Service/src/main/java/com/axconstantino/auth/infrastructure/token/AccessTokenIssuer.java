@@ -0,0 +1,79 @@
+package com.axconstantino.auth.infrastructure.token;
+
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.config.AccessTokenProperties;
+import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Component issuing access tokens in the format configured for the calling client type.
+ * <p>
+ * JWT access tokens are delegated to {@link JwtProvider}. Opaque tokens are the owner's
+ * {@link RedisKeyLayout} tag followed by 24 random bytes encoded as base64url, 35 characters in total, so the
+ * token alone tells which cluster slot holds it. Issuing one costs no signature, and the token only becomes meaningful once
+ * its metadata is stored in the Redis token store, where introspection resolves it with a single lookup.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccessTokenIssuer {
+
+    /**
+     * Request header carrying the client type used to select the access token format.
+     */
+    public static final String CLIENT_TYPE_HEADER = "X-Client-Type";
+
+    private static final int OPAQUE_TOKEN_BYTES = 24;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtProvider jwtProvider;
+    private final AccessTokenProperties properties;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.access-token.expiration-time}")
+    private long accessTokenExpiration;
+
+    /**
+     * Issues an access token for the user in the format configured for {@code clientType}.
+     *
+     * @param user       the authenticated user
+     * @param clientType the {@value #CLIENT_TYPE_HEADER} header value, may be null
+     * @return handle over the issued token
+     */
+    public VerifiedToken issue(User user, String clientType) {
+        return switch (properties.formatFor(clientType)) {
+            case JWT -> jwtProvider.generateAccessToken(user);
+            case OPAQUE -> generateOpaqueToken(user);
+        };
+    }
+
+    private VerifiedToken generateOpaqueToken(User user) {
+        byte[] bytes = new byte[OPAQUE_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        VerifiedToken token = new VerifiedToken(
+                RedisKeyLayout.userTag(user.getId().toString()) + ENCODER.encodeToString(bytes),
+                null,
+                user.getEmail(),
+                user.getId().toString(),
+                null,
+                JwtProvider.rolesClaim(user),
+                now,
+                now.plusMillis(accessTokenExpiration).truncatedTo(ChronoUnit.SECONDS)
+        );
+        log.info("Opaque access token generated for user: {}", user.getEmail());
+        return token;
+    }
+}
@@ -0,0 +1,106 @@
+package com.axconstantino.auth.infrastructure.token;
+
+import com.axconstantino.auth.domain.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job deleting tokens that expired longer than the retention period ago.
+ * <p>
+ * Every login and refresh inserts a token pair, so without it the {@code tokens} table only ever grows. Each run:
+ * <ul>
+ *     <li>deletes the oldest expired rows in batches of {@code auth.token-purge.batch-size}, each batch in its
+ *     own short transaction, skipping rows locked by another instance purging concurrently</li>
+ *     <li>stops once a batch comes back short, or after {@code auth.token-purge.max-batches-per-run} batches
+ *     so a large backlog is worked off over several runs instead of in one long burst</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Progress is published through Micrometer: {@code auth.token.purge.deleted} and {@code auth.token.purge.batches}
+ * count the work done, {@code auth.token.purge.run} times each run, and {@code auth.token.purge.backlog.age}
+ * reports how far past the retention cutoff the oldest remaining row is (0 once the purge has caught up).
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "auth.token-purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenPurgeJob {
+
+    private final TokenRepository tokenRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter deletedCounter;
+    private final Counter batchCounter;
+    private final Timer runTimer;
+    private final AtomicLong backlogAgeSeconds = new AtomicLong();
+
+    public ExpiredTokenPurgeJob(TokenRepository tokenRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${auth.token-purge.retention:P7D}") Duration retention,
+                                @Value("${auth.token-purge.batch-size:1000}") int batchSize,
+                                @Value("${auth.token-purge.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.tokenRepository = tokenRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.deletedCounter = Counter.builder("auth.token.purge.deleted")
+                .description("Expired tokens deleted")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("auth.token.purge.batches")
+                .description("Delete batches executed")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.token.purge.run")
+                .description("Duration of a purge run")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.purge.backlog.age", backlogAgeSeconds, AtomicLong::get)
+                .description("How long before the retention cutoff the oldest remaining token expired")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${auth.token-purge.initial-delay:PT1M}",
+            fixedDelayString = "${auth.token-purge.interval:PT5M}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        long deleted = runTimer.record(() -> purgeBefore(cutoff));
+
+        long backlogAge = tokenRepository.findEarliestExpiry()
+                .filter(cutoff::isAfter)
+                .map(earliest -> Duration.between(earliest, cutoff).toSeconds())
+                .orElse(0L);
+        backlogAgeSeconds.set(backlogAge);
+
+        if (deleted > 0) {
+            log.info("[ExpiredTokenPurgeJob] Deleted {} tokens expired before {}, backlog age: {}s", deleted, cutoff, backlogAge);
+        } else {
+            log.debug("[ExpiredTokenPurgeJob] No tokens expired before {}", cutoff);
+        }
+    }
+
+    private long purgeBefore(Instant cutoff) {
+        long deleted = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int batchDeleted = tokenRepository.deleteExpiredBefore(cutoff, batchSize);
+            batchCounter.increment();
+            deletedCounter.increment(batchDeleted);
+            deleted += batchDeleted;
+            if (batchDeleted < batchSize) {
+                break;
+            }
+        }
+        return deleted;
+    }
+}
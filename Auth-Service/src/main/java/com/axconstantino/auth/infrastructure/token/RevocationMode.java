@@ -0,0 +1,23 @@
+package com.axconstantino.auth.infrastructure.token;
+
+/**
+ * How revocation of JWTs is tracked in Redis, set with {@code auth.token.revocation-mode}.
+ * <p>
+ * Opaque tokens only exist in the token store, so they are always stored there regardless of the mode.
+ * </p>
+ */
+public enum RevocationMode {
+
+    /**
+     * Every issued token is stored in the token store and revoking it deletes the entry; a token is valid
+     * while it is present. Memory grows with the number of live sessions.
+     */
+    ALLOWLIST,
+
+    /**
+     * JWTs are not stored. Revoking one denylists its fixed-length {@code jti} until the token would have
+     * expired, and revoking all sessions of a user writes a single issued-before cutoff.
+     * A verified JWT is valid unless it is denied. Memory grows with the number of revocations.
+     */
+    DENYLIST
+}
@@ -0,0 +1,29 @@
+package com.axconstantino.auth.infrastructure.token;
+
+/**
+ * Wire format of the access tokens handed out to a client.
+ */
+public enum TokenFormat {
+
+    /**
+     * Self-contained signed JWT that resource servers can verify offline against the JWKS.
+     */
+    JWT,
+
+    /**
+     * Short random reference token with no embedded claims; it only means something to whoever can read
+     * the Redis token store, and is resolved there by introspection.
+     */
+    OPAQUE;
+
+    /**
+     * Tells the formats apart without parsing: a compact JWS always contains two dots, while opaque tokens
+     * are base64url and never contain one.
+     *
+     * @param token an issued token
+     * @return the format of that token
+     */
+    public static TokenFormat of(String token) {
+        return token.indexOf('.') >= 0 ? JWT : OPAQUE;
+    }
+}
@@ -0,0 +1,284 @@
+package com.axconstantino.auth.infrastructure.token;
+
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.TokenEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.TokenJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
+import com.axconstantino.auth.infrastructure.redis.adapter.TokenWriteQueue;
+import com.axconstantino.auth.infrastructure.redis.model.TokenWrite;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job writing the token writes queued in write-behind mode to the database.
+ * <p>
+ * One node at a time drains the queue, the one holding the {@code auth.token-persistence.write-behind.lease}
+ * lease, so writes are applied in the order they were queued: a revocation is never applied before the insert
+ * of the token it revokes. Each run:
+ * <ul>
+ *     <li>reads batches of {@code auth.token-persistence.write-behind.batch-size} writes, starting with those
+ *     a previous holder read but never committed, and applies each batch in one transaction, consecutive
+ *     inserts and revocations as single statements</li>
+ *     <li>acknowledges a batch once committed; writes are idempotent, so a batch committed by a node that died
+ *     or lost the lease before acknowledging it is simply applied again: inserts skip the tokens already stored,
+ *     and revocations of all of a user's tokens only revoke those issued before the cutoff they recorded, not
+ *     the tokens issued since</li>
+ *     <li>applies a batch rejected by a constraint write by write, discarding the writes that cannot be
+ *     applied (such as tokens of a user deleted meanwhile) so they do not block the queue</li>
+ *     <li>stops after {@code auth.token-persistence.write-behind.max-batches-per-run} batches, or when the lease
+ *     is lost</li>
+ * </ul>
+ * A failure leaves the batch unacknowledged, and it is read again on the next run.
+ * </p>
+ * <p>
+ * Progress is published through Micrometer: {@code auth.token.write-behind.lag} is the time between a write
+ * being queued and committed, {@code auth.token.write-behind.backlog} the number of writes queued and
+ * {@code auth.token.write-behind.oldest.age} the age of the oldest one, which keeps growing while writes are
+ * failing. {@code auth.token.write-behind.writes} counts the writes applied per operation,
+ * {@code auth.token.write-behind.discarded} those discarded and {@code auth.token.write-behind.batch} times
+ * each batch.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "auth.token-persistence", name = "mode", havingValue = "write-behind")
+public class TokenWriteBehindFlusher {
+
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private final TokenWriteQueue queue;
+    private final TokenJpaRepository tokenJpaRepository;
+    private final UserJpaRepository userJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Duration lease;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private volatile boolean groupCreated;
+
+    private final Map<TokenWrite.Operation, Counter> writeCounters = new EnumMap<>(TokenWrite.Operation.class);
+    private final Counter discardedCounter;
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public TokenWriteBehindFlusher(TokenWriteQueue queue,
+                                   TokenJpaRepository tokenJpaRepository,
+                                   UserJpaRepository userJpaRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${auth.token-persistence.write-behind.lease:PT30S}") Duration lease,
+                                   @Value("${auth.token-persistence.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${auth.token-persistence.write-behind.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.queue = queue;
+        this.tokenJpaRepository = tokenJpaRepository;
+        this.userJpaRepository = userJpaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = lease;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        for (TokenWrite.Operation operation : TokenWrite.Operation.values()) {
+            writeCounters.put(operation, Counter.builder("auth.token.write-behind.writes")
+                    .description("Queued token writes applied to the database")
+                    .tag("operation", operation.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.discardedCounter = Counter.builder("auth.token.write-behind.discarded")
+                .description("Queued token writes discarded because they are malformed or rejected by the database")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("auth.token.write-behind.lag")
+                .description("Time between a token write being queued and committed to the database")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.token.write-behind.batch")
+                .description("Duration of a write-behind batch")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.write-behind.backlog", backlog, AtomicLong::get)
+                .description("Token writes queued for the database")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.write-behind.oldest.age", oldestAgeMillis, AtomicLong::get)
+                .description("Age of the oldest token write queued for the database")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${auth.token-persistence.write-behind.initial-delay:PT5S}",
+            fixedDelayString = "${auth.token-persistence.write-behind.flush-interval:PT0.2S}")
+    public void flush() {
+        try {
+            // Every node measures the backlog: it is what bounds the queue for its own requests
+            backlog.set(queue.refreshBacklog());
+            oldestAgeMillis.set(queue.oldestEnqueuedAt()
+                    .map(enqueuedAt -> Math.max(Duration.between(enqueuedAt, Instant.now()).toMillis(), 0))
+                    .orElse(0L));
+            if (backlog.get() == 0 || !queue.holdLease(nodeId, lease)) {
+                return;
+            }
+
+            if (!groupCreated) {
+                queue.createGroupIfAbsent();
+                groupCreated = true;
+            }
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<MapRecord<String, String, String>> records = queue.read(batchSize);
+                if (records.isEmpty()) {
+                    break;
+                }
+                batchTimer.record(() -> write(records));
+                if (records.size() < batchSize || !queue.holdLease(nodeId, lease)) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Also covers a queue recreated without its group, which is created again on the next run
+            groupCreated = false;
+            log.warn("[TokenWriteBehindFlusher] Flush failed, queued token writes will be retried: {}", e.getMessage());
+        }
+    }
+
+    private void write(List<MapRecord<String, String, String>> records) {
+        List<RecordId> ids = new ArrayList<>(records.size());
+        List<TokenWrite> writes = new ArrayList<>(records.size());
+        List<RecordId> malformed = new ArrayList<>();
+        for (MapRecord<String, String, String> record : records) {
+            try {
+                writes.add(TokenWrite.fromFields(record.getValue()));
+                ids.add(record.getId());
+            } catch (IllegalArgumentException e) {
+                log.warn("[TokenWriteBehindFlusher] Discarding malformed token write {}: {}", record.getId(), e.getMessage());
+                malformed.add(record.getId());
+            }
+        }
+        discardedCounter.increment(malformed.size());
+        queue.complete(malformed);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(writes));
+            committed(ids, writes);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("[TokenWriteBehindFlusher] Batch rejected by the database, applying writes one by one: {}", e.getMessage());
+            for (int i = 0; i < writes.size(); i++) {
+                writeAlone(ids.get(i), writes.get(i));
+            }
+        }
+    }
+
+    private void writeAlone(RecordId id, TokenWrite write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(List.of(write)));
+            committed(List.of(id), List.of(write));
+        } catch (DataIntegrityViolationException e) {
+            log.error("[TokenWriteBehindFlusher] Discarding {} token write {} rejected by the database: {}",
+                    write.operation(), id, e.getMessage());
+            discardedCounter.increment();
+            queue.complete(List.of(id));
+            queue.settle(List.of(write));
+        }
+    }
+
+    private void committed(List<RecordId> ids, List<TokenWrite> writes) {
+        queue.complete(ids);
+        queue.settle(writes);
+
+        Instant now = Instant.now();
+        for (int i = 0; i < ids.size(); i++) {
+            long lagMillis = Duration.between(TokenWriteQueue.enqueuedAt(ids.get(i)), now).toMillis();
+            lagTimer.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+            writeCounters.get(writes.get(i).operation()).increment();
+        }
+    }
+
+    /**
+     * Applies the writes in queue order, grouping consecutive writes of the same kind into one statement.
+     */
+    private void apply(List<TokenWrite> writes) {
+        int start = 0;
+        while (start < writes.size()) {
+            TokenWrite.Operation operation = writes.get(start).operation();
+            int end = start + 1;
+            while (end < writes.size() && writes.get(end).operation() == operation
+                    && operation != TokenWrite.Operation.REVOKE_ALL) {
+                end++;
+            }
+
+            List<TokenWrite> run = writes.subList(start, end);
+            switch (operation) {
+                case INSERT -> insert(run);
+                case REVOKE -> tokenJpaRepository.revokeByTokenHashIn(run.stream()
+                        .map(write -> BASE64_URL.decode(write.digests().get(0)))
+                        .toList());
+                case REVOKE_ALL -> revokeAll(run.get(0));
+            }
+            start = end;
+        }
+    }
+
+    private void revokeAll(TokenWrite write) {
+        UUID userId = UUID.fromString(write.userId());
+        if (write.issuedAt() != null) {
+            tokenJpaRepository.revokeActiveByUserIdIssuedBefore(userId, write.issuedAt());
+        } else {
+            // Queued before revocations recorded their cutoff
+            tokenJpaRepository.revokeActiveByUserId(userId);
+        }
+    }
+
+    /**
+     * Inserts the tokens not stored yet, so a batch applied twice inserts them once.
+     */
+    private void insert(List<TokenWrite> writes) {
+        List<byte[]> hashes = writes.stream()
+                .map(write -> BASE64_URL.decode(write.digests().get(0)))
+                .toList();
+        Set<String> stored = new HashSet<>();
+        tokenJpaRepository.findExistingTokenHashes(hashes)
+                .forEach(hash -> stored.add(TokenDigest.toBase64Url(hash)));
+
+        List<TokenEntity> entities = new ArrayList<>(writes.size());
+        for (int i = 0; i < writes.size(); i++) {
+            TokenWrite write = writes.get(i);
+            if (stored.add(write.digests().get(0))) {
+                entities.add(TokenEntity.builder()
+                        .tokenHash(hashes.get(i))
+                        .type(write.type())
+                        .issuedAt(write.issuedAt())
+                        .expiresAt(write.expiresAt())
+                        .ipAddress(write.ipAddress())
+                        .userAgent(write.userAgent())
+                        .active(true)
+                        .user(userJpaRepository.getReferenceById(UUID.fromString(write.userId())))
+                        .build());
+            }
+        }
+        tokenJpaRepository.saveAll(entities);
+        // Written now, so that revocations later in the batch see these rows
+        tokenJpaRepository.flush();
+    }
+}
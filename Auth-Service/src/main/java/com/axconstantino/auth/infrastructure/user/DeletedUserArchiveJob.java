@@ -0,0 +1,149 @@
+package com.axconstantino.auth.infrastructure.user;
+
+import com.axconstantino.auth.domain.model.ArchivedUsers;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job moving users soft-deleted longer than the retention period ago out of the live tables.
+ * <p>
+ * A deleted user only has its {@code deleted_at} set, so without it {@code users}, {@code user_roles} and
+ * {@code tokens} keep every deleted user forever. Each run:
+ * <ul>
+ *     <li>moves the users deleted longest ago to {@code users_archive}, with their roles and tokens, in batches of
+ *     {@code auth.user-archive.batch-size}, each batch a single statement in its own short transaction, skipping
+ *     users locked by another instance archiving concurrently</li>
+ *     <li>stops once a batch comes back short, or after {@code auth.user-archive.max-batches-per-run} batches so
+ *     a large backlog is worked off over several runs instead of in one long burst</li>
+ *     <li>then permanently deletes, the same way, archived users older than {@code auth.user-archive.purge-after}</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Progress is published through Micrometer: {@code auth.user.archive.rows} counts the rows moved per table,
+ * {@code auth.user.archive.batches} the batches run, {@code auth.user.archive.purged} the archived users deleted
+ * and {@code auth.user.archive.run} times each run. {@code auth.user.archive.backlog.age} reports how far past the
+ * retention cutoff the earliest remaining deletion is (0 once the job has caught up).
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "auth.user-archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeletedUserArchiveJob {
+
+    private final UserRepository userRepository;
+    private final Duration retention;
+    private final Duration purgeAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter archivedUsers;
+    private final Counter archivedRoles;
+    private final Counter archivedTokens;
+    private final Counter batchCounter;
+    private final Counter purgedCounter;
+    private final Timer runTimer;
+    private final AtomicLong backlogAgeSeconds = new AtomicLong();
+
+    public DeletedUserArchiveJob(UserRepository userRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${auth.user-archive.retention:P30D}") Duration retention,
+                                 @Value("${auth.user-archive.purge-after:P365D}") Duration purgeAfter,
+                                 @Value("${auth.user-archive.batch-size:500}") int batchSize,
+                                 @Value("${auth.user-archive.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.userRepository = userRepository;
+        this.retention = retention;
+        this.purgeAfter = purgeAfter;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.archivedUsers = rowCounter(meterRegistry, "users");
+        this.archivedRoles = rowCounter(meterRegistry, "user_roles");
+        this.archivedTokens = rowCounter(meterRegistry, "tokens");
+        this.batchCounter = Counter.builder("auth.user.archive.batches")
+                .description("Archive batches executed")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("auth.user.archive.purged")
+                .description("Archived users permanently deleted")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.user.archive.run")
+                .description("Duration of an archive run")
+                .register(meterRegistry);
+        Gauge.builder("auth.user.archive.backlog.age", backlogAgeSeconds, AtomicLong::get)
+                .description("How long before the retention cutoff the earliest remaining soft-deleted user was deleted")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${auth.user-archive.initial-delay:PT2M}",
+            fixedDelayString = "${auth.user-archive.interval:PT15M}")
+    public void archive() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(retention);
+        Instant purgeCutoff = now.minus(purgeAfter);
+        runTimer.record(() -> {
+            archiveBefore(cutoff);
+            purgeBefore(purgeCutoff);
+        });
+
+        long backlogAge = userRepository.findEarliestDeletion()
+                .filter(cutoff::isAfter)
+                .map(earliest -> Duration.between(earliest, cutoff).toSeconds())
+                .orElse(0L);
+        backlogAgeSeconds.set(backlogAge);
+    }
+
+    private void archiveBefore(Instant cutoff) {
+        long users = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            ArchivedUsers archived = userRepository.archiveDeletedBefore(cutoff, batchSize);
+            batchCounter.increment();
+            archivedUsers.increment(archived.users());
+            archivedRoles.increment(archived.roles());
+            archivedTokens.increment(archived.tokens());
+            users += archived.users();
+            if (archived.users() < batchSize) {
+                break;
+            }
+        }
+
+        if (users > 0) {
+            log.info("[DeletedUserArchiveJob] Archived {} users deleted before {}", users, cutoff);
+        } else {
+            log.debug("[DeletedUserArchiveJob] No users deleted before {}", cutoff);
+        }
+    }
+
+    private void purgeBefore(Instant cutoff) {
+        long purged = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int batchPurged = userRepository.purgeArchivedBefore(cutoff, batchSize);
+            purgedCounter.increment(batchPurged);
+            purged += batchPurged;
+            if (batchPurged < batchSize) {
+                break;
+            }
+        }
+
+        if (purged > 0) {
+            log.info("[DeletedUserArchiveJob] Permanently deleted {} users archived before {}", purged, cutoff);
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("auth.user.archive.rows")
+                .description("Rows moved to the archive")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,9 @@
 package com.axconstantino.auth.web;
 
+import com.axconstantino.auth.application.dto.CursorSlice;
+import com.axconstantino.auth.application.dto.ExportFormat;
 import com.axconstantino.auth.application.service.AdminService;
+import com.axconstantino.auth.application.usecase.ExportUsers;
 import com.axconstantino.auth.domain.model.User;
 import com.axconstantino.auth.web.dto.UpdateRoleRequest;
 import com.axconstantino.auth.web.dto.UserResponse;
@@ -16,9 +19,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -31,6 +38,7 @@ import java.util.UUID;
 public class AdminController {
 
     private final AdminService adminService;
+    private final ExportUsers exportUsers;
 
     @Operation(
             summary = "List all users",
@@ -50,6 +58,51 @@ public class AdminController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            summary = "Scroll through users",
+            description = "Returns users in user name order, one slice at a time. Pass the returned nextCursor to "
+                    + "get the following slice; unlike the paginated list, no total count is computed and deep "
+                    + "slices cost the same as the first one.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+            }
+    )
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorSlice<UserResponse>> scrollUsers(
+            @Parameter(description = "Cursor returned with the previous slice, omitted for the first one")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Slice size, at most 100")
+            @RequestParam(name = "size", defaultValue = "20") int size
+    ) {
+        CursorSlice<User> users = adminService.listUsers(cursor, size);
+        return ResponseEntity.ok(users.map(this::toUserResponse));
+    }
+
+    @Operation(
+            summary = "Export all users",
+            description = "Streams every user as NDJSON (one JSON object per line) or CSV. The response is written "
+                    + "while users are read from the database, so it starts immediately and works for any table size.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Export streamed successfully")
+            }
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Output format, NDJSON or CSV")
+            @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format
+    ) {
+        log.info("[AdminController] Exporting users as {}", format);
+        StreamingResponseBody body = out -> exportUsers.execute(format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + format.fileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @Operation(
             summary = "Get user details",
             description = "Retrieves detailed information about a user by ID.",
@@ -1,6 +1,8 @@
 package com.axconstantino.auth.web;
 
 import com.axconstantino.auth.application.command.*;
+import com.axconstantino.auth.application.dto.JwksResponse;
+import com.axconstantino.auth.application.dto.TokenIntrospectionResponse;
 import com.axconstantino.auth.application.dto.TokenResponse;
 import com.axconstantino.auth.application.usecase.*;
 import com.axconstantino.auth.web.dto.*;
@@ -14,6 +16,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -31,6 +35,8 @@ public class AuthController {
     private final RequestEmailVerification requestEmailVerification;
     private final VerifyEmail verifyEmail;
     private final Logout logout;
+    private final GetJwks getJwks;
+    private final IntrospectToken introspectToken;
 
     @Operation(
             summary = "Register a new user",
@@ -178,4 +184,39 @@ public class AuthController {
         verifyEmail.execute(token);
         return ResponseEntity.ok().build();
     }
+
+    @Operation(
+            summary = "Get JSON Web Key Set",
+            description = "Returns the public keys used to verify issued tokens, selectable by their `kid` header. " +
+                    "Responses carry a strong ETag and Cache-Control so clients can cache and revalidate them.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Key set returned"),
+                    @ApiResponse(responseCode = "304", description = "Key set unchanged since the ETag sent in If-None-Match")
+            }
+    )
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        JwksResponse jwks = getJwks.execute();
+        return ResponseEntity.ok()
+                .eTag(jwks.etag())
+                .cacheControl(CacheControl.maxAge(jwks.maxAge())
+                        .cachePublic()
+                        .staleWhileRevalidate(jwks.maxAge()))
+                .body(jwks.json());
+    }
+
+    @Operation(
+            summary = "Introspect a token",
+            description = "Resolves an opaque or JWT access token against the token store and returns its owner " +
+                    "and roles while it is active.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Introspection result",
+                            content = @Content(schema = @Schema(implementation = TokenIntrospectionResponse.class)))
+            }
+    )
+    @PostMapping(value = "/introspect", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TokenIntrospectionResponse> introspect(
+            @Parameter(description = "Token to introspect") @RequestParam String token) {
+        return ResponseEntity.ok(introspectToken.execute(token));
+    }
 }
@@ -6,7 +6,10 @@ import com.axconstantino.auth.application.command.ChangeUserNameCommand;
 import com.axconstantino.auth.application.usecase.ChangeEmail;
 import com.axconstantino.auth.application.usecase.ChangePassword;
 import com.axconstantino.auth.application.usecase.ChangeUserName;
+import com.axconstantino.auth.application.dto.SessionResponse;
 import com.axconstantino.auth.application.usecase.DeleteAccount;
+import com.axconstantino.auth.application.usecase.ListSessions;
+import com.axconstantino.auth.application.usecase.RevokeSession;
 import com.axconstantino.auth.web.dto.ChangeEmailRequest;
 import com.axconstantino.auth.web.dto.ChangePasswordRequest;
 import com.axconstantino.auth.web.dto.ChangeUserNameRequest;
@@ -25,6 +28,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @PreAuthorize("isAuthenticated()")
@@ -38,6 +42,8 @@ public class UserController {
     private final ChangeEmail changeEmail;
     private final ChangeUserName changeUserName;
     private final DeleteAccount deleteUser;
+    private final ListSessions listSessions;
+    private final RevokeSession revokeSession;
 
     @Operation(
             summary = "Change user password",
@@ -143,4 +149,36 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "List active sessions",
+            description = "Returns the authenticated user's live sessions (devices), soonest to expire first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Sessions returned"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized")
+            }
+    )
+    @GetMapping("/sessions")
+    public ResponseEntity<List<SessionResponse>> listSessions(
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt principal) {
+        UUID userId = UUID.fromString(principal.getSubject());
+        return ResponseEntity.ok(listSessions.execute(userId));
+    }
+
+    @Operation(
+            summary = "Revoke a session",
+            description = "Signs the authenticated user out of one of their sessions, identified by the id returned when listing them.",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Session revoked"),
+                    @ApiResponse(responseCode = "401", description = "Unauthorized")
+            }
+    )
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> revokeSession(
+            @Parameter(hidden = true) @AuthenticationPrincipal Jwt principal,
+            @Parameter(description = "Session id") @PathVariable String sessionId) {
+        UUID userId = UUID.fromString(principal.getSubject());
+        revokeSession.execute(userId, sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
 }
@@ -0,0 +1,30 @@
+-- Schema as created by Hibernate before migrations were introduced. Existing databases are baselined
+-- at this version (spring.flyway.baseline-on-migrate), new ones are created from it.
+
+CREATE TABLE IF NOT EXISTS users (
+    id             uuid                        NOT NULL PRIMARY KEY,
+    user_name      varchar(255)                NOT NULL UNIQUE,
+    email          varchar(255)                NOT NULL UNIQUE,
+    password       varchar(255)                NOT NULL,
+    active         boolean                     NOT NULL,
+    email_verified boolean                     NOT NULL,
+    deleted_at     timestamp(6) with time zone
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id uuid        NOT NULL REFERENCES users (id),
+    role_id varchar(50) NOT NULL,
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS tokens (
+    id          uuid                        NOT NULL PRIMARY KEY,
+    token_value varchar(2048)               NOT NULL UNIQUE,
+    type        varchar(50)                 NOT NULL,
+    issued_at   timestamp(6) with time zone NOT NULL,
+    expires_at  timestamp(6) with time zone,
+    ip_address  varchar(255),
+    user_agent  varchar(255),
+    active      boolean                     NOT NULL,
+    user_id     uuid                        NOT NULL REFERENCES users (id)
+);
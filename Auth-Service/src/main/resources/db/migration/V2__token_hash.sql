@@ -0,0 +1,13 @@
+-- Replaces the unique index over the full token (JWTs are ~800 characters) with a fixed-width SHA-256
+-- digest. Lookups hash the presented token, so the raw token no longer needs to be stored at all.
+
+ALTER TABLE tokens ADD COLUMN token_hash bytea;
+
+-- sha256() is built in since PostgreSQL 11; it matches TokenDigest.sha256 over the UTF-8 bytes
+UPDATE tokens SET token_hash = sha256(convert_to(token_value, 'UTF8'));
+
+ALTER TABLE tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE tokens ADD CONSTRAINT ck_tokens_token_hash_length CHECK (octet_length(token_hash) = 32);
+ALTER TABLE tokens ADD CONSTRAINT uk_tokens_token_hash UNIQUE (token_hash);
+
+ALTER TABLE tokens DROP COLUMN token_value;
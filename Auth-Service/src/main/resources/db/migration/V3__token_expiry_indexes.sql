@@ -0,0 +1,7 @@
+-- Supports the expired-token purge (ExpiredTokenPurgeJob), which deletes the oldest expired rows in
+-- batches, and the per-user lookups of active tokens, which no longer scan a user's whole history.
+
+CREATE INDEX IF NOT EXISTS ix_tokens_expires_at ON tokens (expires_at);
+
+-- Revoked and expired rows are the bulk of the table; only active ones are ever looked up by user
+CREATE INDEX IF NOT EXISTS ix_tokens_user_id_active ON tokens (user_id, expires_at) WHERE active;
@@ -0,0 +1,4 @@
+-- Backs the keyset-paginated admin user listing, which walks live users in user_name order. The unique
+-- constraint's index also covers soft-deleted rows; this one only holds the rows the listing can return.
+
+CREATE INDEX IF NOT EXISTS ix_users_user_name_live ON users (user_name) WHERE deleted_at IS NULL;
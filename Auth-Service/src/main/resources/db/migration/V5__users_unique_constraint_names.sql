@@ -0,0 +1,29 @@
+-- Gives the unique constraints on users.email and users.user_name fixed names, so a violation can be told
+-- apart by constraint name (UserRepositoryJpaAdapter maps them to DuplicateCredentialsException). Databases
+-- created by Hibernate have generated names and those created from V1 have PostgreSQL's defaults.
+
+DO $$
+DECLARE
+    target   record;
+    existing text;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES ('email', 'uk_users_email'), ('user_name', 'uk_users_user_name'))
+            AS t (column_name, constraint_name)
+    LOOP
+        SELECT c.conname INTO existing
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'users'::regclass
+          AND c.contype = 'u'
+          AND cardinality(c.conkey) = 1
+          AND a.attname = target.column_name
+        LIMIT 1;
+
+        IF existing IS NULL THEN
+            EXECUTE format('ALTER TABLE users ADD CONSTRAINT %I UNIQUE (%I)', target.constraint_name, target.column_name);
+        ELSIF existing <> target.constraint_name THEN
+            EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', existing, target.constraint_name);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,39 @@
+-- Archive for soft-deleted users (DeletedUserArchiveJob). Once a user has been deleted for longer than the
+-- retention period, the row is moved here together with its roles and tokens, so users and its indexes only
+-- hold live users and the few deleted within the retention period. The archive tables mirror the live ones
+-- without constraints other than the primary keys, and are only ever written in bulk and purged by age.
+
+CREATE TABLE IF NOT EXISTS users_archive (
+    id             uuid                        NOT NULL PRIMARY KEY,
+    user_name      varchar(255)                NOT NULL,
+    email          varchar(255)                NOT NULL,
+    password       varchar(255)                NOT NULL,
+    active         boolean                     NOT NULL,
+    email_verified boolean                     NOT NULL,
+    deleted_at     timestamp(6) with time zone NOT NULL,
+    archived_at    timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_roles_archive (
+    user_id uuid        NOT NULL,
+    role_id varchar(50) NOT NULL,
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS tokens_archive (
+    id         uuid                        NOT NULL PRIMARY KEY,
+    token_hash bytea                       NOT NULL,
+    type       varchar(50)                 NOT NULL,
+    issued_at  timestamp(6) with time zone NOT NULL,
+    expires_at timestamp(6) with time zone,
+    ip_address varchar(255),
+    user_agent varchar(255),
+    active     boolean                     NOT NULL,
+    user_id    uuid                        NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_users_archive_archived_at ON users_archive (archived_at);
+CREATE INDEX IF NOT EXISTS ix_tokens_archive_user_id ON tokens_archive (user_id);
+
+-- Lets the archive job find the users due without scanning the live ones
+CREATE INDEX IF NOT EXISTS ix_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,12 @@
+-- Transactional outbox for the domain events published to Kafka (EventPublisherService). An event is inserted in
+-- the transaction of the change it describes, so it exists if and only if that change is committed, and is deleted
+-- by OutboxRelay once Kafka has acknowledged it: the table only ever holds the relay's backlog, read in id order.
+
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id         bigserial                   NOT NULL PRIMARY KEY,
+    topic      varchar(255)                NOT NULL,
+    event_key  varchar(255)                NOT NULL,
+    event_type varchar(255)                NOT NULL,
+    payload    jsonb                       NOT NULL,
+    created_at timestamp(6) with time zone NOT NULL DEFAULT now()
+);
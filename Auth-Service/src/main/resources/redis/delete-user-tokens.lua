@@ -0,0 +1,22 @@
+-- Removes every token indexed under a user's session index, and the index itself, in one atomic call.
+-- KEYS[1]: user index key
+-- ARGV[1]: token key prefix
+-- Returns the tokens removed, so callers can drop exactly those from local caches.
+-- UNLINK frees the values off the main thread; keys are sent in chunks to stay below Lua's unpack limit.
+-- Token keys are built here from ARGV[1] rather than passed in KEYS, which Redis Cluster scripting rules forbid:
+-- reading the index first would let a token saved in between survive the deletion. This is a deliberate exception
+-- that relies on ARGV[1] carrying the hash tag of KEYS[1] (see RedisKeyLayout), so every key touched is in the slot
+-- of the declared key, which is all a cluster checks. TokenCacheRedisClusterTest runs the script against a real
+-- cluster.
+local members = redis.call('ZRANGE', KEYS[1], 0, -1)
+
+local chunk = {}
+for i, token in ipairs(members) do
+    chunk[#chunk + 1] = ARGV[1] .. token
+    if #chunk == 1000 or i == #members then
+        redis.call('UNLINK', unpack(chunk))
+        chunk = {}
+    end
+end
+redis.call('UNLINK', KEYS[1])
+return members
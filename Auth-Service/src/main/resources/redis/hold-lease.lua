@@ -0,0 +1,15 @@
+-- Acquires a lease, or extends it if the caller already holds it.
+-- KEYS[1]: lease key
+-- ARGV[1]: owner id
+-- ARGV[2]: lease duration in ms
+-- Returns 1 if the caller holds the lease, 0 if another owner does.
+local owner = redis.call('GET', KEYS[1])
+if owner == false then
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+    return 1
+end
+if owner == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
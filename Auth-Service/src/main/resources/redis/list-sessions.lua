@@ -0,0 +1,21 @@
+-- Returns the live sessions of a user as a flat list of member, value pairs, ordered by expiry.
+-- KEYS[1]: user index key
+-- ARGV[1]: current time in epoch ms, ARGV[2]: token key prefix
+-- Members that expired, or whose token was deleted individually, are pruned from the index on the way.
+-- Token keys are built here from ARGV[2] rather than passed in KEYS, which Redis Cluster scripting rules forbid:
+-- they are only known once the index is read. This is a deliberate exception that relies on ARGV[2] carrying the
+-- hash tag of KEYS[1] (see RedisKeyLayout), so every key touched is in the slot of the declared key, which is all
+-- a cluster checks. TokenCacheRedisClusterTest runs the script against a real cluster.
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[1])
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], '(' .. ARGV[1], '+inf')
+local sessions = {}
+for _, member in ipairs(members) do
+    local value = redis.call('GET', ARGV[2] .. member)
+    if value then
+        sessions[#sessions + 1] = member
+        sessions[#sessions + 1] = value
+    else
+        redis.call('ZREM', KEYS[1], member)
+    end
+end
+return sessions
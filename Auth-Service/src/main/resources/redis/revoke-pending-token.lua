@@ -0,0 +1,19 @@
+-- Marks a token revoked in its owner bucket of pending tokens, at most once.
+-- KEYS[1]: pending tokens key
+-- ARGV[1]: token digest
+-- ARGV[2]: ttl of the pending tokens key in ms
+-- A token with no pending entry has already been written to the database; it is recorded as revoked with no
+-- metadata so that a second revocation is still rejected until the queued one has been written.
+-- Returns 1 if the token is now revoked, 0 if it already was.
+local current = redis.call('HGET', KEYS[1], ARGV[1])
+if current and string.sub(current, 1, 1) == 'R' then
+    return 0
+end
+
+if current then
+    redis.call('HSET', KEYS[1], ARGV[1], 'R' .. string.sub(current, 2))
+else
+    redis.call('HSET', KEYS[1], ARGV[1], 'R')
+end
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return 1
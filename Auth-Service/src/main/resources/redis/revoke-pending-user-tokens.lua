@@ -0,0 +1,25 @@
+-- Marks every active pending token of a user revoked, and records the user's revoked-before cutoff, in one
+-- atomic call.
+-- KEYS[1]: pending tokens key of the user's bucket
+-- ARGV[1]: user id
+-- ARGV[2]: field of the user's revoked-before cutoff in the bucket
+-- ARGV[3]: the cutoff, in epoch seconds
+-- ARGV[4]: ttl of the pending tokens key in ms
+-- Only tokens not yet written to the database are pending, so the bucket stays small. Tokens already written have
+-- no entry: the cutoff revokes those issued before it until the queued revocation is written.
+-- Returns the digests of the tokens revoked.
+local prefix = 'A|' .. ARGV[1] .. '|'
+local entries = redis.call('HGETALL', KEYS[1])
+
+local revoked = {}
+for i = 1, #entries, 2 do
+    local value = entries[i + 1]
+    if string.sub(value, 1, #prefix) == prefix then
+        redis.call('HSET', KEYS[1], entries[i], 'R' .. string.sub(value, 2))
+        revoked[#revoked + 1] = entries[i]
+    end
+end
+
+redis.call('HSET', KEYS[1], ARGV[2], ARGV[3])
+redis.call('PEXPIRE', KEYS[1], ARGV[4])
+return revoked
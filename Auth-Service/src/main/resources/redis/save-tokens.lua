@@ -0,0 +1,21 @@
+-- Stores token entries and indexes them in their owner's session index in one atomic call.
+-- KEYS: token key and user index key pairs        (KEYS[2i-1], KEYS[2i])
+-- ARGV[1]: current time in epoch ms
+-- ARGV: value, ttl in ms and member triples        (ARGV[3i-1], ARGV[3i], ARGV[3i+1])
+-- The index is a sorted set scored by expiry: expired members are pruned on every write and the index
+-- itself expires together with its longest-lived member.
+local now = tonumber(ARGV[1])
+
+for i = 1, #KEYS / 2 do
+    local tokenKey = KEYS[2 * i - 1]
+    local userKey = KEYS[2 * i]
+    local ttl = tonumber(ARGV[3 * i])
+
+    redis.call('SET', tokenKey, ARGV[3 * i - 1], 'PX', ttl)
+    redis.call('ZREMRANGEBYSCORE', userKey, '-inf', now)
+    redis.call('ZADD', userKey, now + ttl, ARGV[3 * i + 1])
+
+    local last = redis.call('ZRANGE', userKey, -1, -1, 'WITHSCORES')
+    redis.call('PEXPIREAT', userKey, tonumber(last[2]))
+end
+return #KEYS / 2
@@ -0,0 +1,16 @@
+-- Removes pending entries once the writes they stand for are in the database.
+-- KEYS[1]: pending tokens key
+-- ARGV: field and expected value pairs             (ARGV[2i-1], ARGV[2i])
+-- A one-character expected value is a token state, matched against the first character of the entry: a token
+-- revoked after its insert was written stays pending until the revocation is written as well. A longer one is a
+-- revoked-before cutoff, matched whole: a cutoff replaced by a later revocation stays until that one is written.
+local removed = 0
+for i = 1, #ARGV / 2 do
+    local field = ARGV[2 * i - 1]
+    local expected = ARGV[2 * i]
+    local current = redis.call('HGET', KEYS[1], field)
+    if current and (current == expected or (#expected == 1 and string.sub(current, 1, 1) == expected)) then
+        removed = removed + redis.call('HDEL', KEYS[1], field)
+    end
+end
+return removed
@@ -0,0 +1,106 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.TokenIntrospectionResponse;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.jwt.VerifiedToken;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.token.RevocationMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that introspection only ever reports access tokens as active.
+ */
+class IntrospectTokenServiceTest {
+
+    private final TokenCacheRepository cacheRepository = mock(TokenCacheRepository.class);
+    private final JwtProvider jwtProvider = mock(JwtProvider.class);
+    private final IntrospectTokenService service = new IntrospectTokenService(cacheRepository, jwtProvider);
+
+    @Test
+    void reportsCachedAccessTokensActive() {
+        TokenData accessToken = tokenData("access", TokenType.ACCESS_TOKEN);
+        when(cacheRepository.find("access")).thenReturn(Optional.of(accessToken));
+
+        TokenIntrospectionResponse response = service.execute("access");
+
+        assertTrue(response.active());
+        assertEquals(accessToken.userId(), response.userId());
+        assertEquals("ROLE_USER", response.roles());
+    }
+
+    @Test
+    void reportsCachedRefreshTokensInactive() {
+        when(cacheRepository.find("refresh")).thenReturn(Optional.of(tokenData("refresh", TokenType.REFRESH_TOKEN)));
+
+        TokenIntrospectionResponse response = service.execute("refresh");
+
+        assertFalse(response.active());
+        assertNull(response.sub());
+        assertNull(response.roles());
+    }
+
+    @Test
+    void reportsCachedTokensOfUnknownTypeInactive() {
+        when(cacheRepository.find("untyped")).thenReturn(Optional.of(tokenData("untyped", null)));
+
+        assertFalse(service.execute("untyped").active());
+    }
+
+    @Test
+    void reportsAccessJwtsActiveInDenylistMode() {
+        VerifiedToken jwt = jwt("header.access.signature", null, "ROLE_USER");
+        useDenylistMode(jwt);
+
+        TokenIntrospectionResponse response = service.execute(jwt.value());
+
+        assertTrue(response.active());
+        assertEquals("ROLE_USER", response.roles());
+    }
+
+    @Test
+    void reportsRefreshJwtsInactiveInDenylistMode() {
+        VerifiedToken jwt = jwt("header.refresh.signature", JwtProvider.REFRESH_TOKEN_TYPE, null);
+        useDenylistMode(jwt);
+
+        assertFalse(service.execute(jwt.value()).active());
+    }
+
+    @Test
+    void reportsUntypedJwtsWithoutRolesInactiveInDenylistMode() {
+        // Refresh tokens issued before they carried a type claim
+        VerifiedToken jwt = jwt("header.legacy.signature", null, null);
+        useDenylistMode(jwt);
+
+        assertFalse(service.execute(jwt.value()).active());
+    }
+
+    private void useDenylistMode(VerifiedToken jwt) {
+        ReflectionTestUtils.setField(service, "revocationMode", RevocationMode.DENYLIST);
+        when(jwtProvider.parse(jwt.value())).thenReturn(jwt);
+    }
+
+    private static VerifiedToken jwt(String value, String type, String roles) {
+        Instant now = Instant.now();
+        return new VerifiedToken(value, "jti", "user@example.com", UUID.randomUUID().toString(), type, roles,
+                now, now.plusSeconds(60));
+    }
+
+    private static TokenData tokenData(String token, TokenType type) {
+        return new TokenData(UUID.randomUUID().toString(), token, type, true, Instant.now().plusSeconds(60),
+                "127.0.0.1", "test", "user@example.com", "ROLE_USER", null);
+    }
+}
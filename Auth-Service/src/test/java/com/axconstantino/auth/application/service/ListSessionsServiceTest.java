@@ -0,0 +1,59 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.dto.SessionResponse;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the tokens of a session are listed as a single session.
+ */
+class ListSessionsServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final TokenCacheRepository cacheRepository = mock(TokenCacheRepository.class);
+    private final ListSessionsService service = new ListSessionsService(cacheRepository);
+
+    @Test
+    void listsTheAccessAndRefreshTokenOfASessionOnce() {
+        Instant now = Instant.now();
+        when(cacheRepository.findSessions(USER_ID.toString())).thenReturn(List.of(
+                tokenData("access-1", TokenType.ACCESS_TOKEN, now.plusSeconds(900), "laptop", "session-1"),
+                tokenData("access-2", TokenType.ACCESS_TOKEN, now.plusSeconds(1_000), "phone", "session-2"),
+                tokenData("refresh-2", TokenType.REFRESH_TOKEN, now.plusSeconds(600_000), "phone", "session-2"),
+                tokenData("refresh-1", TokenType.REFRESH_TOKEN, now.plusSeconds(604_800), "laptop", "session-1")
+        ));
+
+        List<SessionResponse> sessions = service.execute(USER_ID);
+
+        assertEquals(List.of("session-2", "session-1"), sessions.stream().map(SessionResponse::id).toList());
+        assertEquals(now.plusSeconds(604_800), sessions.get(1).expiresAt());
+        assertEquals("laptop", sessions.get(1).userAgent());
+    }
+
+    @Test
+    void listsTokensWithoutASessionIdUnderTheirDigest() {
+        when(cacheRepository.findSessions(USER_ID.toString())).thenReturn(List.of(
+                tokenData("legacy", TokenType.ACCESS_TOKEN, Instant.now().plusSeconds(900), "laptop", null)));
+
+        List<SessionResponse> sessions = service.execute(USER_ID);
+
+        assertEquals(List.of(TokenDigest.sha256Base64Url("legacy")), sessions.stream().map(SessionResponse::id).toList());
+    }
+
+    static TokenData tokenData(String token, TokenType type, Instant expiresAt, String userAgent, String sessionId) {
+        return new TokenData(USER_ID.toString(), token, type, true, expiresAt, "127.0.0.1", userAgent,
+                "user@example.com", "ROLE_USER", sessionId);
+    }
+}
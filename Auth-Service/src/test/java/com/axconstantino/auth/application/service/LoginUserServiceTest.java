@@ -0,0 +1,85 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.application.command.AuthenticateCommand;
+import com.axconstantino.auth.application.dto.TokenResponse;
+import com.axconstantino.auth.domain.exception.BadCredentialsException;
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.UserCredentials;
+import com.axconstantino.auth.domain.repository.TokenRepository;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.axconstantino.auth.infrastructure.jwt.JwtProvider;
+import com.axconstantino.auth.infrastructure.token.AccessTokenIssuer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that login reads and checks the credentials before its read-write transaction begins, so it never holds
+ * a connection for them while holding one for the token writes.
+ */
+class LoginUserServiceTest {
+
+    private static final String EMAIL = "jane@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+
+    private final LoginUserService service = new LoginUserService(mock(JwtProvider.class),
+            mock(AccessTokenIssuer.class), mock(TokenService.class), userRepository, mock(TokenRepository.class),
+            passwordEncoder, redisTemplate, transactionTemplate);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(userRepository.findCredentialsByEmail(EMAIL)).thenReturn(Optional.of(new UserCredentials(
+                UUID.randomUUID(), "jane", EMAIL, "hash", true, true, Set.of(Role.ROLE_USER))));
+    }
+
+    @Test
+    void checksTheCredentialsBeforeTheTokenTransaction() {
+        TokenResponse tokens = new TokenResponse("access", "refresh");
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenReturn(tokens);
+
+        assertSame(tokens, service.execute(new AuthenticateCommand(EMAIL, "secret"), request));
+
+        InOrder order = inOrder(userRepository, passwordEncoder, transactionTemplate);
+        order.verify(userRepository).findCredentialsByEmail(EMAIL);
+        order.verify(passwordEncoder).matches(anyString(), anyString());
+        order.verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void opensNoTransactionForAWrongPassword() {
+        when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class,
+                () -> service.execute(new AuthenticateCommand(EMAIL, "wrong"), request));
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+}
@@ -0,0 +1,57 @@
+package com.axconstantino.auth.application.service;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.domain.repository.TokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static com.axconstantino.auth.application.service.ListSessionsServiceTest.tokenData;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that revoking a session revokes every token of it, and only those.
+ */
+class RevokeSessionServiceTest {
+
+    private final TokenCacheRepository cacheRepository = mock(TokenCacheRepository.class);
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final TokenService tokenService = mock(TokenService.class);
+    private final RevokeSessionService service = new RevokeSessionService(cacheRepository, tokenRepository, tokenService);
+
+    @Test
+    void revokesTheRefreshTokenAlongWithTheAccessToken() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+        when(cacheRepository.findSessions(userId.toString())).thenReturn(List.of(
+                tokenData("access-1", TokenType.ACCESS_TOKEN, now.plusSeconds(900), "laptop", "session-1"),
+                tokenData("access-2", TokenType.ACCESS_TOKEN, now.plusSeconds(1_000), "phone", "session-2"),
+                tokenData("refresh-1", TokenType.REFRESH_TOKEN, now.plusSeconds(604_800), "laptop", "session-1")
+        ));
+
+        service.execute(userId, "session-1");
+
+        verify(tokenRepository).revoke("access-1");
+        verify(tokenRepository).revoke("refresh-1");
+        verify(tokenRepository, never()).revoke("access-2");
+        verify(tokenService).deleteTokenFromCache("access-1");
+        verify(tokenService).deleteTokenFromCache("refresh-1");
+    }
+
+    @Test
+    void ignoresUnknownSessions() {
+        UUID userId = UUID.randomUUID();
+        when(cacheRepository.findSessions(userId.toString())).thenReturn(List.of());
+
+        service.execute(userId, "session-1");
+
+        verify(tokenRepository, never()).revoke(anyString());
+    }
+}
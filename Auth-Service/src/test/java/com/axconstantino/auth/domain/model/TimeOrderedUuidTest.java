@@ -0,0 +1,50 @@
+package com.axconstantino.auth.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    void setsVersionAndVariant() {
+        UUID uuid = TimeOrderedUuid.next();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void embedsCurrentUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuid.next();
+        long after = System.currentTimeMillis();
+
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        // The counter may carry into the timestamp under load, but never by more than a few milliseconds
+        assertTrue(millis >= before && millis <= after + 10, "timestamp " + millis + " outside [" + before + ", " + after + "]");
+    }
+
+    @Test
+    void isStrictlyIncreasingWithinTheSameMillisecond() {
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            uuids.add(TimeOrderedUuid.next());
+        }
+
+        for (int i = 1; i < uuids.size(); i++) {
+            // Compared as the unsigned byte string stored in a PostgreSQL uuid column
+            assertTrue(compareUnsigned(uuids.get(i - 1), uuids.get(i)) < 0, "not increasing at index " + i);
+        }
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
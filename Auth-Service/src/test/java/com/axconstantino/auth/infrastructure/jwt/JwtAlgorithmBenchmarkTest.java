@@ -0,0 +1,138 @@
+package com.axconstantino.auth.infrastructure.jwt;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.config.JwtKeyConfig;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sign/verify checks and throughput benchmark for every {@link JwtAlgorithm}.
+ * <p>
+ * The round-trip test always runs. The throughput benchmark is skipped unless the {@code benchmark}
+ * system property is set:
+ * <pre>
+ * mvn test -Dtest=JwtAlgorithmBenchmarkTest -Dbenchmark=true
+ * </pre>
+ * It reports signatures and verifications per second on a single thread for a token carrying the same
+ * claims as an access token, together with the resulting token size.
+ * </p>
+ */
+class JwtAlgorithmBenchmarkTest {
+
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASUREMENT_NANOS = 3_000_000_000L;
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void signsAndVerifiesWithPemEncodedKeys(JwtAlgorithm algorithm) throws Exception {
+        KeyPair keyPair = generateKeyPair(algorithm);
+        PrivateKey privateKey = JwtKeyConfig.parsePrivateKey(toPem("PRIVATE KEY", keyPair.getPrivate().getEncoded()), algorithm);
+        PublicKey publicKey = JwtKeyConfig.parsePublicKey(toPem("PUBLIC KEY", keyPair.getPublic().getEncoded()), algorithm);
+        JwtProvider provider = newProvider(algorithm, privateKey, publicKey);
+
+        VerifiedToken issued = provider.generateAccessToken(
+                User.register("benchmark", "benchmark@example.com", "hash", Set.of(Role.ROLE_USER)));
+        VerifiedToken parsed = provider.parse(issued.value());
+
+        JwsHeader header = Jwts.parser().verifyWith(publicKey).build().parseSignedClaims(issued.value()).getHeader();
+
+        assertEquals(issued, parsed);
+        assertEquals(algorithm.signatureAlgorithm().getId(), header.getAlgorithm());
+        assertEquals(JwtKeyRing.thumbprint(publicKey), header.getKeyId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void signAndVerifyThroughput(JwtAlgorithm algorithm) throws Exception {
+        KeyPair keyPair = generateKeyPair(algorithm);
+        JwtParser parser = Jwts.parser().verifyWith(keyPair.getPublic()).build();
+        String userId = UUID.randomUUID().toString();
+
+        Supplier<String> signer = () -> Jwts.builder()
+                .claim("roles", "ROLE_USER")
+                .claim("userId", userId)
+                .claim("username", "benchmark")
+                .subject("benchmark@example.com")
+                .issuer("auth-service")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(keyPair.getPrivate(), algorithm.signatureAlgorithm())
+                .compact();
+        String token = signer.get();
+
+        double signsPerSecond = measure(signer);
+        double verificationsPerSecond = measure(() -> parser.parseSignedClaims(token));
+
+        System.out.printf("[JwtAlgorithmBenchmark] %-6s sign: %,10.0f ops/s | verify: %,10.0f ops/s | token: %4d chars%n",
+                algorithm, signsPerSecond, verificationsPerSecond, token.length());
+    }
+
+    private static double measure(Supplier<?> operation) {
+        run(operation, WARMUP_NANOS);
+        return run(operation, MEASUREMENT_NANOS) * 1_000_000_000d / MEASUREMENT_NANOS;
+    }
+
+    private static long run(Supplier<?> operation, long durationNanos) {
+        long operations = 0;
+        Object sink = null;
+        long deadline = System.nanoTime() + durationNanos;
+        while (System.nanoTime() < deadline) {
+            sink = operation.get();
+            operations++;
+        }
+        if (sink == null) {
+            throw new IllegalStateException("Operation produced no result");
+        }
+        return operations;
+    }
+
+    private static JwtProvider newProvider(JwtAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+        JwtKey key = new JwtKey(JwtKeyRing.thumbprint(publicKey), algorithm, publicKey, privateKey);
+        JwtProvider provider = new JwtProvider(
+                new JwtKeyRing(List.of(key), key.kid()),
+                new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(provider, "issuer", "auth-service");
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 900_000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+        provider.initParser();
+        return provider;
+    }
+
+    private static KeyPair generateKeyPair(JwtAlgorithm algorithm) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.keyAlgorithm());
+        switch (algorithm) {
+            case RS256 -> generator.initialize(2048);
+            case ES256 -> generator.initialize(new ECGenParameterSpec("secp256r1"));
+            case EDDSA -> { }
+        }
+        return generator.generateKeyPair();
+    }
+
+    private static String toPem(String type, byte[] encoded) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(encoded)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,126 @@
+package com.axconstantino.auth.infrastructure.persistence;
+
+import com.axconstantino.auth.domain.model.TimeOrderedUuid;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput benchmark for the {@code tokens} table, comparing random (v4) with time-ordered (v7)
+ * primary keys, each written one statement at a time and as JDBC batches.
+ * <p>
+ * It needs a PostgreSQL database migrated by Flyway and is skipped unless one is given:
+ * <pre>
+ * mvn test -Dtest=TokenInsertBenchmarkTest -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/auth \
+ *     -Dbenchmark.jdbc-user=postgres -Dbenchmark.jdbc-password=postgres [-Dbenchmark.rows=200000]
+ * </pre>
+ * Every scenario inserts into its own fresh copy of the table and commits once per token pair, as a login or
+ * refresh does. It reports rows per second and the resulting primary key index size, which shows the page
+ * splits caused by random keys.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class TokenInsertBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    enum Scenario {
+        RANDOM_SINGLE(UUID::randomUUID, false),
+        RANDOM_BATCHED(UUID::randomUUID, true),
+        TIME_ORDERED_SINGLE(TimeOrderedUuid::next, false),
+        TIME_ORDERED_BATCHED(TimeOrderedUuid::next, true);
+
+        private final Supplier<UUID> ids;
+        private final boolean batched;
+
+        Scenario(Supplier<UUID> ids, boolean batched) {
+            this.ids = ids;
+            this.batched = batched;
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Scenario.class)
+    void insertThroughput(Scenario scenario) throws Exception {
+        try (Connection connection = connect()) {
+            String table = "bench_tokens_" + scenario.name().toLowerCase();
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("DROP TABLE IF EXISTS " + table);
+                ddl.execute("CREATE TABLE " + table + " (LIKE tokens INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING INDEXES)");
+            }
+            connection.setAutoCommit(false);
+
+            UUID userId = TimeOrderedUuid.next();
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table
+                    + " (id, token_hash, type, issued_at, expires_at, ip_address, user_agent, active, user_id)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, true, ?)")) {
+                for (int row = 0; row < ROWS; row++) {
+                    bind(insert, scenario.ids.get(), row % 2 == 0 ? "ACCESS_TOKEN" : "REFRESH_TOKEN", userId);
+                    if (scenario.batched) {
+                        insert.addBatch();
+                    } else {
+                        insert.executeUpdate();
+                    }
+                    if (row % 2 == 1) {
+                        if (scenario.batched) {
+                            insert.executeBatch();
+                        }
+                        connection.commit();
+                    }
+                }
+            }
+            double rowsPerSecond = ROWS * 1_000_000_000d / (System.nanoTime() - start);
+
+            long indexBytes;
+            try (Statement query = connection.createStatement();
+                 ResultSet rs = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+                rs.next();
+                indexBytes = rs.getLong(1);
+            }
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("DROP TABLE " + table);
+            }
+            connection.commit();
+
+            System.out.printf("[TokenInsertBenchmark] %-20s %,10.0f rows/s | pkey index: %,8d KiB%n",
+                    scenario, rowsPerSecond, indexBytes / 1024);
+        }
+    }
+
+    private static void bind(PreparedStatement insert, UUID id, String type, UUID userId) throws Exception {
+        byte[] tokenHash = new byte[32];
+        RANDOM.nextBytes(tokenHash);
+        Instant now = Instant.now();
+
+        insert.setObject(1, id);
+        insert.setBytes(2, tokenHash);
+        insert.setString(3, type);
+        insert.setTimestamp(4, Timestamp.from(now));
+        insert.setTimestamp(5, Timestamp.from(now.plusSeconds(900)));
+        insert.setString(6, "127.0.0.1");
+        insert.setString(7, "benchmark");
+        insert.setObject(8, userId);
+    }
+
+    private static Connection connect() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("user", System.getProperty("benchmark.jdbc-user", "postgres"));
+        properties.setProperty("password", System.getProperty("benchmark.jdbc-password", ""));
+        properties.setProperty("reWriteBatchedInserts", "true");
+        return DriverManager.getConnection(System.getProperty("benchmark.jdbc-url"), properties);
+    }
+}
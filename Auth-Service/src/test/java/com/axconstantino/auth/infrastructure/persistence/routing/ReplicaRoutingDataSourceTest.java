@@ -0,0 +1,99 @@
+package com.axconstantino.auth.infrastructure.persistence.routing;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks read-only routing against two independent PostgreSQL databases standing in for a primary and its
+ * replica. Each holds a probe row naming it, so every query reports which one served it. Skipped unless both
+ * are given, for example with two local instances:
+ * <pre>
+ * docker run -d -p 5432:5432 -e POSTGRES_PASSWORD=postgres postgres:16
+ * docker run -d -p 5433:5432 -e POSTGRES_PASSWORD=postgres postgres:16
+ * REPLICA_TEST_PRIMARY_URL=jdbc:postgresql://localhost:5432/postgres \
+ * REPLICA_TEST_REPLICA_URL=jdbc:postgresql://localhost:5433/postgres \
+ * REPLICA_TEST_PASSWORD=postgres mvn test -Dtest=ReplicaRoutingDataSourceTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "REPLICA_TEST_PRIMARY_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "REPLICA_TEST_REPLICA_URL", matches = ".+")
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PROBE = "SELECT name FROM routing_probe";
+
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate readOnly;
+    private static TransactionTemplate readWrite;
+
+    @BeforeAll
+    static void setUp() {
+        DataSource primary = probe(System.getenv("REPLICA_TEST_PRIMARY_URL"), "primary");
+        DataSource replica = probe(System.getenv("REPLICA_TEST_REPLICA_URL"), "replica");
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, List.of(replica)));
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> probe()));
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertEquals("primary", readWrite.execute(status -> probe()));
+    }
+
+    @Test
+    void readsOutsideTransactionsUseThePrimary() {
+        assertEquals("primary", probe());
+    }
+
+    @Test
+    void forcedReadOnlyTransactionsUseThePrimary() {
+        assertEquals("primary", ReplicaRoutingContext.onPrimary(() -> readOnly.execute(status -> probe())));
+        assertEquals("replica", readOnly.execute(status -> probe()));
+    }
+
+    @Test
+    void recentlyWrittenKeysAreReadFromThePrimary() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(30), 100);
+        readYourWrites.markWritten("written@example.com");
+
+        assertEquals("primary", readYourWrites.read("Written@Example.com", () -> readOnly.execute(status -> probe())));
+        assertEquals("replica", readYourWrites.read("other@example.com", () -> readOnly.execute(status -> probe())));
+    }
+
+    private static String probe() {
+        return jdbc.queryForObject(PROBE, String.class);
+    }
+
+    private static DataSource probe(String url, String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getenv().getOrDefault("REPLICA_TEST_USERNAME", "postgres"),
+                System.getenv().getOrDefault("REPLICA_TEST_PASSWORD", ""));
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("CREATE TABLE IF NOT EXISTS routing_probe (name text NOT NULL)");
+        setup.update("DELETE FROM routing_probe");
+        setup.update("INSERT INTO routing_probe (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
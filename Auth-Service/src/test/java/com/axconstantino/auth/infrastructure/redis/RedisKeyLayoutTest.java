@@ -0,0 +1,93 @@
+package com.axconstantino.auth.infrastructure.redis;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.config.AccessTokenProperties;
+import com.axconstantino.auth.infrastructure.token.AccessTokenIssuer;
+import com.axconstantino.auth.infrastructure.token.TokenFormat;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link RedisKeyLayout} against a three-master stand-in of a Redis Cluster, with the slot ranges
+ * {@code redis-cli --cluster create} assigns, using the same slot hashing as the Lettuce cluster client.
+ */
+class RedisKeyLayoutTest {
+
+    private static final int[] NODE_FIRST_SLOTS = {0, 5461, 10923};
+
+    @Test
+    void placesEveryKeyOfAUserOnTheSameNode() {
+        User user = User.register("jane", "jane@example.com", "hash", Set.of(Role.ROLE_USER));
+        String userId = user.getId().toString();
+
+        List<String> keys = List.of(
+                RedisKeyLayout.tokenKey(jwtFor(userId)),
+                RedisKeyLayout.tokenKey(opaqueTokenFor(user)),
+                RedisKeyLayout.tokenKey(userId, "any-token"),
+                RedisKeyLayout.userIndexKey(userId),
+                RedisKeyLayout.revokedKey(userId, "jti"),
+                RedisKeyLayout.revokedBeforeKey(userId)
+        );
+
+        int slot = SlotHash.getSlot(keys.get(0));
+        keys.forEach(key -> assertEquals(slot, SlotHash.getSlot(key), key));
+    }
+
+    @Test
+    void findsTheTagOfATokenFromTheTokenAlone() {
+        User user = User.register("john", "john@example.com", "hash", Set.of(Role.ROLE_USER));
+        String tag = RedisKeyLayout.userTag(user.getId().toString());
+
+        assertEquals(tag, RedisKeyLayout.tokenTag(jwtFor(user.getId().toString())));
+        assertEquals(tag, RedisKeyLayout.tokenTag(opaqueTokenFor(user)));
+        assertEquals(RedisKeyLayout.TAG_LENGTH + 32, opaqueTokenFor(user).length());
+    }
+
+    @Test
+    void spreadsUsersEvenlyAcrossNodes() {
+        int users = 30_000;
+        int[] keysPerNode = new int[NODE_FIRST_SLOTS.length];
+        for (int i = 0; i < users; i++) {
+            keysPerNode[node(SlotHash.getSlot(RedisKeyLayout.userIndexKey(UUID.randomUUID().toString())))]++;
+        }
+
+        for (int count : keysPerNode) {
+            double share = (double) count / users;
+            assertTrue(share > 0.28 && share < 0.39, "node share " + share);
+        }
+    }
+
+    private static int node(int slot) {
+        int node = 0;
+        while (node + 1 < NODE_FIRST_SLOTS.length && slot >= NODE_FIRST_SLOTS[node + 1]) {
+            node++;
+        }
+        return node;
+    }
+
+    private static String jwtFor(String userId) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"a@b.c\",\"userId\":\"" + userId + "\"}")
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+
+    private static String opaqueTokenFor(User user) {
+        AccessTokenIssuer issuer = new AccessTokenIssuer(null, new AccessTokenProperties(TokenFormat.OPAQUE, Map.of()));
+        ReflectionTestUtils.setField(issuer, "accessTokenExpiration", 900_000L);
+        return issuer.issue(user, null).value();
+    }
+}
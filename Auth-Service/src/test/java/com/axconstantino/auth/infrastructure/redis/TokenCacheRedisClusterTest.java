@@ -0,0 +1,149 @@
+package com.axconstantino.auth.infrastructure.redis;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.infrastructure.persistence.mapper.RedisTokenMapper;
+import com.axconstantino.auth.infrastructure.redis.adapter.TokenCacheRedisImpl;
+import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.redis.serializer.RedisTokenEntityCodec;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.mapstruct.factory.Mappers;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Redis token store against a real Redis Cluster, where any script or multi-key command spanning
+ * slots fails with {@code CROSSSLOT}. Skipped unless {@code REDIS_CLUSTER_NODES} lists the seed nodes of a
+ * local cluster, for example one with three masters started by
+ * <pre>
+ * docker run -d -p 7000-7005:7000-7005 -e IP=0.0.0.0 grokzen/redis-cluster:7.0.10
+ * REDIS_CLUSTER_NODES=localhost:7000,localhost:7001,localhost:7002 mvn test -Dtest=TokenCacheRedisClusterTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_CLUSTER_NODES", matches = ".+")
+class TokenCacheRedisClusterTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static TokenCacheRedisImpl store;
+
+    @BeforeAll
+    static void connect() {
+        List<String> nodes = Arrays.asList(System.getenv("REDIS_CLUSTER_NODES").split(","));
+        connectionFactory = new LettuceConnectionFactory(new RedisClusterConfiguration(nodes));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisTemplate<String, RedisTokenEntity> entityTemplate = new RedisTemplate<>();
+        entityTemplate.setConnectionFactory(connectionFactory);
+        entityTemplate.setKeySerializer(new StringRedisSerializer());
+        entityTemplate.setValueSerializer(new RedisTokenEntityCodec());
+        entityTemplate.afterPropertiesSet();
+
+        StringRedisTemplate stringTemplate = new StringRedisTemplate(connectionFactory);
+        store = new TokenCacheRedisImpl(entityTemplate, stringTemplate, Mappers.getMapper(RedisTokenMapper.class));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    void storesListsAndRevokesAUsersTokensAtomically() {
+        String userId = UUID.randomUUID().toString();
+        String accessToken = RedisKeyLayout.userTag(userId) + UUID.randomUUID().toString().replace("-", "");
+        String refreshToken = RedisKeyLayout.userTag(userId) + UUID.randomUUID().toString().replace("-", "");
+
+        store.saveAll(List.of(
+                tokenData(userId, accessToken, Instant.now().plus(15, ChronoUnit.MINUTES)),
+                tokenData(userId, refreshToken, Instant.now().plus(7, ChronoUnit.DAYS))
+        ));
+
+        assertTrue(store.find(accessToken).isPresent());
+        assertEquals(List.of(accessToken, refreshToken),
+                store.findSessions(userId).stream().map(TokenData::tokenValue).toList());
+
+        assertEquals(Set.of(accessToken, refreshToken), Set.copyOf(store.deleteAllForUser(userId)));
+        assertFalse(store.find(accessToken).isPresent());
+        assertTrue(store.findSessions(userId).isEmpty());
+    }
+
+    /**
+     * The session scripts build token keys from the index members rather than declaring them, which a cluster only
+     * accepts while those keys share the declared index key's slot. Users are spread over several buckets so the
+     * scripts run on different nodes.
+     */
+    @Test
+    void listsAndDeletesTokensWhoseKeysTheScriptsBuild() {
+        for (int i = 0; i < 8; i++) {
+            String userId = UUID.randomUUID().toString();
+            List<String> tokens = List.of(
+                    RedisKeyLayout.userTag(userId) + UUID.randomUUID().toString().replace("-", ""),
+                    RedisKeyLayout.userTag(userId) + UUID.randomUUID().toString().replace("-", ""));
+            int indexSlot = SlotHash.getSlot(RedisKeyLayout.userIndexKey(userId));
+            tokens.forEach(token -> assertEquals(indexSlot,
+                    SlotHash.getSlot(RedisKeyLayout.tokenKeyPrefix(RedisKeyLayout.userTag(userId)) + token)));
+
+            store.saveAll(List.of(
+                    tokenData(userId, tokens.get(0), Instant.now().plus(15, ChronoUnit.MINUTES)),
+                    tokenData(userId, tokens.get(1), Instant.now().plus(7, ChronoUnit.DAYS))));
+
+            assertEquals(tokens, store.findSessions(userId).stream().map(TokenData::tokenValue).toList());
+            assertEquals(Set.copyOf(tokens), Set.copyOf(store.deleteAllForUser(userId)));
+            tokens.forEach(token -> assertFalse(store.find(token).isPresent()));
+        }
+    }
+
+    @Test
+    void checksTheDenylistOfAUserInOneCommand() {
+        String userId = UUID.randomUUID().toString();
+        Instant issuedAt = Instant.now().minusSeconds(60);
+
+        store.deny("jti-1", userId, Instant.now().plusSeconds(60));
+        assertTrue(store.isDenied("jti-1", userId, issuedAt));
+        assertFalse(store.isDenied("jti-2", userId, issuedAt));
+
+        store.denyIssuedBefore(userId, Instant.now(), Instant.now().plusSeconds(60));
+        assertTrue(store.isDenied("jti-2", userId, issuedAt));
+    }
+
+    @Test
+    void deletesTokensOfSeveralUsersSpreadOverSlots() {
+        List<String> userIds = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                UUID.randomUUID().toString());
+        List<String> tokens = userIds.stream()
+                .map(userId -> RedisKeyLayout.userTag(userId) + UUID.randomUUID().toString().replace("-", ""))
+                .toList();
+        for (int i = 0; i < userIds.size(); i++) {
+            store.saveAll(List.of(tokenData(userIds.get(i), tokens.get(i), Instant.now().plusSeconds(60))));
+        }
+
+        store.deleteAll(tokens);
+
+        tokens.forEach(token -> assertFalse(store.find(token).isPresent()));
+    }
+
+    private static TokenData tokenData(String userId, String token, Instant expiresAt) {
+        return new TokenData(userId, token, TokenType.ACCESS_TOKEN, true, expiresAt, "127.0.0.1", "test", "user@example.com", "ROLE_USER", null);
+    }
+}
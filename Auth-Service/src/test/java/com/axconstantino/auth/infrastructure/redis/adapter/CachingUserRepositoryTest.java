@@ -0,0 +1,86 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.domain.repository.UserRepository;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the user cache hands out independent users and never holds password hashes.
+ */
+class CachingUserRepositoryTest {
+
+    private final UserRepository delegate = mock(UserRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final CachingUserRepository repository = new CachingUserRepository(delegate, redisTemplate,
+            new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(),
+            Duration.ofMinutes(1), Duration.ofMinutes(10), 100);
+
+    private final User stored = new User(UUID.randomUUID(), "jane", "jane@example.com", "$2a$10$hash",
+            Set.of(Role.ROLE_USER), true, true, null, new HashSet<>());
+
+    @Test
+    void handsOutAFreshUserOnEveryHit() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(delegate.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        User first = repository.findById(stored.getId()).orElseThrow();
+        first.changeEmail("changed@example.com");
+        first.assignRole(Role.ROLE_ADMIN);
+        User second = repository.findById(stored.getId()).orElseThrow();
+
+        assertEquals("jane@example.com", second.getEmail());
+        assertEquals(Set.of(Role.ROLE_USER), second.getRoles());
+        verify(delegate, times(1)).findById(stored.getId());
+    }
+
+    @Test
+    void neverCachesThePasswordHash() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(delegate.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        repository.findById(stored.getId());
+        User cached = repository.findById(stored.getId()).orElseThrow();
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(RedisKeyLayout.userCacheKey(stored.getId().toString())), json.capture(), any(Duration.class));
+        assertFalse(json.getValue().contains("$2a$10$hash"));
+        assertFalse(json.getValue().contains("password"));
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void loadsUsersWithCredentialsFromTheStore() {
+        when(delegate.findWithCredentialsById(stored.getId())).thenReturn(Optional.of(stored));
+
+        assertEquals("$2a$10$hash", repository.findWithCredentialsById(stored.getId()).orElseThrow().getPassword());
+        verify(valueOperations, times(0)).set(anyString(), anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.repository.TokenCacheRepository;
+import com.axconstantino.auth.infrastructure.redis.model.TokenData;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that deleting a user's tokens drops exactly those tokens from the near cache, here and on the other
+ * nodes, without touching the rest of the cache.
+ */
+class NearCachedTokenCacheRepositoryTest {
+
+    private final TokenCacheRepository delegate = mock(TokenCacheRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private final NearCachedTokenCacheRepository nearCache = new NearCachedTokenCacheRepository(delegate,
+            redisTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1), 1_000);
+
+    @Test
+    void invalidatesTheDeletedTokensOfAUser() {
+        cache("jane-token", "jane");
+        cache("john-token", "john");
+        when(delegate.deleteAllForUser("jane")).thenReturn(List.of("jane-token"));
+
+        nearCache.deleteAllForUser("jane");
+
+        verify(redisTemplate).convertAndSend(eq(NearCachedTokenCacheRepository.INVALIDATION_CHANNEL),
+                (Object) endsWith("|t|" + TokenDigest.sha256Base64Url("jane-token")));
+        nearCache.find("jane-token");
+        nearCache.find("john-token");
+        verify(delegate, times(2)).find("jane-token");
+        verify(delegate, times(1)).find("john-token");
+    }
+
+    @Test
+    void appliesTokenInvalidationsFromOtherNodes() {
+        cache("jane-token", "jane");
+        String message = System.currentTimeMillis() + "|other-node|t|" + TokenDigest.sha256Base64Url("jane-token");
+
+        nearCache.onMessage(new DefaultMessage(NearCachedTokenCacheRepository.INVALIDATION_CHANNEL.getBytes(
+                StandardCharsets.UTF_8), message.getBytes(StandardCharsets.UTF_8)), null);
+
+        nearCache.find("jane-token");
+        verify(delegate, times(2)).find("jane-token");
+    }
+
+    private void cache(String token, String userId) {
+        when(delegate.find(token)).thenReturn(Optional.of(new TokenData(userId, token, TokenType.ACCESS_TOKEN, true,
+                Instant.now().plusSeconds(600), null, null, null, null, null)));
+        nearCache.find(token);
+    }
+}
@@ -0,0 +1,158 @@
+package com.axconstantino.auth.infrastructure.redis.adapter;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.redis.RedisKeyLayout;
+import com.axconstantino.auth.infrastructure.redis.model.PendingToken;
+import com.axconstantino.auth.infrastructure.redis.model.TokenWrite;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the write-behind queue against a real Redis: revocations of pending and stored tokens, settling the pending
+ * state once writes are committed, and replaying writes delivered but never acknowledged. The tests delete the write
+ * queue stream, so they must run against a throwaway Redis. Skipped unless {@code REDIS_URL} points to one, for
+ * example
+ * <pre>
+ * docker run -d -p 6379:6379 redis:7
+ * REDIS_URL=redis://localhost:6379 mvn test -Dtest=TokenWriteQueueRedisTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_URL", matches = ".+")
+class TokenWriteQueueRedisTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+    private static TokenWriteQueue queue;
+
+    @BeforeAll
+    static void connect() {
+        URI uri = URI.create(System.getenv("REDIS_URL"));
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(uri.getHost(),
+                uri.getPort() > 0 ? uri.getPort() : 6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        queue = new TokenWriteQueue(redisTemplate, Duration.ofDays(7), 10_000);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @BeforeEach
+    void resetQueue() {
+        redisTemplate.delete(RedisKeyLayout.tokenWriteQueueKey());
+        queue.createGroupIfAbsent();
+    }
+
+    @Test
+    void revokesAPendingTokenOnce() {
+        User user = user();
+        Token token = token(user, Instant.now());
+        queue.enqueueInserts(List.of(token));
+
+        assertTrue(queue.enqueueRevoke(token.getToken()));
+        assertFalse(queue.enqueueRevoke(token.getToken()));
+        assertTrue(queue.findPending(token.getToken()).orElseThrow().revoked());
+    }
+
+    @Test
+    void recordsARevokedBeforeCutoffUntilTheRevocationIsSettled() {
+        User user = user();
+        String userId = user.getId().toString();
+        Token pending = token(user, Instant.now());
+        queue.enqueueInserts(List.of(pending));
+
+        List<String> revoked = queue.enqueueRevokeAll(userId);
+
+        assertEquals(List.of(TokenDigest.sha256Base64Url(pending.getToken())), revoked);
+        assertTrue(queue.findPending(pending.getToken()).orElseThrow().revoked());
+        Instant cutoff = queue.findRevokedBefore(userId).orElseThrow();
+        assertFalse(cutoff.isAfter(Instant.now()));
+
+        List<TokenWrite> writes = drain();
+        assertEquals(List.of(TokenWrite.Operation.INSERT, TokenWrite.Operation.REVOKE_ALL),
+                writes.stream().map(TokenWrite::operation).toList());
+        queue.settle(writes);
+
+        assertTrue(queue.findPending(pending.getToken()).isEmpty());
+        assertTrue(queue.findRevokedBefore(userId).isEmpty());
+    }
+
+    @Test
+    void keepsTheCutoffOfALaterRevocationWhenSettlingAnEarlierOne() {
+        String userId = user().getId().toString();
+        queue.enqueueRevokeAll(userId);
+        List<TokenWrite> earlier = drain();
+        String field = PendingToken.revokedBeforeField(userId);
+        String key = RedisKeyLayout.pendingTokensKey(RedisKeyLayout.userTag(userId));
+        redisTemplate.opsForHash().put(key, field, Long.toString(Instant.now().getEpochSecond() + 60));
+
+        queue.settle(earlier);
+
+        assertTrue(queue.findRevokedBefore(userId).isPresent());
+    }
+
+    @Test
+    void replaysWritesDeliveredButNeverAcknowledged() {
+        User user = user();
+        queue.enqueueInserts(List.of(token(user, Instant.now())));
+        queue.enqueueRevokeAll(user.getId().toString());
+
+        List<MapRecord<String, String, String>> delivered = queue.read(10);
+        List<MapRecord<String, String, String>> replayed = queue.read(10);
+
+        assertEquals(ids(delivered), ids(replayed));
+        queue.complete(ids(replayed));
+        assertTrue(queue.read(10).isEmpty());
+        assertEquals(0, queue.refreshBacklog());
+    }
+
+    private static List<TokenWrite> drain() {
+        List<MapRecord<String, String, String>> records = queue.read(10);
+        queue.complete(ids(records));
+        return records.stream().map(record -> TokenWrite.fromFields(record.getValue())).toList();
+    }
+
+    private static List<RecordId> ids(List<MapRecord<String, String, String>> records) {
+        return records.stream().map(MapRecord::getId).toList();
+    }
+
+    private static User user() {
+        return User.register("jane", "jane@example.com", "hash", Set.of(Role.ROLE_USER));
+    }
+
+    private static Token token(User user, Instant issuedAt) {
+        String value = RedisKeyLayout.userTag(user.getId().toString()) + UUID.randomUUID().toString().replace("-", "");
+        Instant iat = issuedAt.truncatedTo(ChronoUnit.MILLIS);
+        return new Token(value, TokenDigest.sha256(value), TokenType.REFRESH_TOKEN, iat, iat.plus(7, ChronoUnit.DAYS),
+                null, null, true, user);
+    }
+}
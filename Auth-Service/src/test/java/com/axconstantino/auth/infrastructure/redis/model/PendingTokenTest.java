@@ -0,0 +1,49 @@
+package com.axconstantino.auth.infrastructure.redis.model;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round-trip checks for the pending entry format of {@link PendingToken}.
+ */
+class PendingTokenTest {
+
+    private static final Instant ISSUED_AT = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Test
+    void roundTripsAnActiveToken() {
+        PendingToken pending = new PendingToken(false, "user-id", TokenType.ACCESS_TOKEN, ISSUED_AT,
+                ISSUED_AT.plus(15, ChronoUnit.MINUTES));
+
+        assertEquals(pending, PendingToken.decode(pending.encode()));
+    }
+
+    @Test
+    void roundTripsARevokedTokenWithoutExpiry() {
+        PendingToken pending = new PendingToken(true, "user-id", TokenType.REFRESH_TOKEN, ISSUED_AT, null);
+
+        assertEquals(pending, PendingToken.decode(pending.encode()));
+    }
+
+    @Test
+    void decodesABareRevocation() {
+        PendingToken pending = PendingToken.decode(String.valueOf(PendingToken.REVOKED));
+
+        assertEquals(new PendingToken(true, null, null, null, null), pending);
+        assertFalse(pending.hasMetadata());
+    }
+
+    @Test
+    void rejectsMalformedEntries() {
+        assertThrows(IllegalArgumentException.class, () -> PendingToken.decode("A"));
+        assertThrows(IllegalArgumentException.class, () -> PendingToken.decode("X|user-id|ACCESS_TOKEN|1|2"));
+        assertThrows(IllegalArgumentException.class, () -> PendingToken.decode("A|user-id|ACCESS_TOKEN|1"));
+    }
+}
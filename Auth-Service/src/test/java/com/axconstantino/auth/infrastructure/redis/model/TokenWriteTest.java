@@ -0,0 +1,66 @@
+package com.axconstantino.auth.infrastructure.redis.model;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Round-trip checks for the stream entry format of {@link TokenWrite}.
+ */
+class TokenWriteTest {
+
+    @Test
+    void roundTripsAnInsert() {
+        User user = User.register("jane", "jane@example.com", "hash", Set.of(Role.ROLE_USER));
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Token token = new Token("opaque-token", TokenDigest.sha256("opaque-token"), TokenType.REFRESH_TOKEN,
+                issuedAt, issuedAt.plus(7, ChronoUnit.DAYS), "203.0.113.7", "curl/8.5", true, user);
+
+        TokenWrite write = TokenWrite.insert(token);
+
+        assertEquals(write, TokenWrite.fromFields(write.toFields()));
+    }
+
+    @Test
+    void roundTripsASingleRevocation() {
+        TokenWrite write = TokenWrite.revoke("opaque-token");
+
+        assertEquals(write, TokenWrite.fromFields(write.toFields()));
+    }
+
+    @Test
+    void roundTripsARevocationOfAllTokensWithItsCutoff() {
+        Instant cutoff = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        TokenWrite write = TokenWrite.revokeAll("user-id", List.of("digest-a", "digest-b"), cutoff);
+
+        TokenWrite decoded = TokenWrite.fromFields(write.toFields());
+
+        assertEquals(write, decoded);
+        assertEquals(cutoff, decoded.issuedAt());
+    }
+
+    @Test
+    void roundTripsARevocationOfAllTokensWithNoPendingToken() {
+        TokenWrite write = TokenWrite.revokeAll("user-id", List.of(), Instant.ofEpochSecond(1_700_000_000L));
+
+        assertEquals(write, TokenWrite.fromFields(write.toFields()));
+    }
+
+    @Test
+    void rejectsIncompleteEntries() {
+        assertThrows(IllegalArgumentException.class, () -> TokenWrite.fromFields(Map.of("op", "INSERT", "tag", "abc")));
+        assertThrows(IllegalArgumentException.class, () -> TokenWrite.fromFields(Map.of("op", "REVOKE_ALL")));
+    }
+}
@@ -0,0 +1,155 @@
+package com.axconstantino.auth.infrastructure.redis.serializer;
+
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.infrastructure.redis.model.RedisTokenEntity;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trip checks for {@link RedisTokenEntityCodec} and a footprint comparison against the JSON format
+ * previously used for token entries. The sizes are only printed when the {@code benchmark} system property is set:
+ * <pre>
+ * mvn test -Dtest=RedisTokenEntityCodecTest -Dbenchmark=true
+ * </pre>
+ */
+class RedisTokenEntityCodecTest {
+
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0 Safari/537.36";
+
+    private final RedisTokenEntityCodec codec = new RedisTokenEntityCodec();
+
+    @Test
+    void roundTripsEveryFieldExceptTheToken() {
+        RedisTokenEntity entity = entity(randomToken(800));
+
+        RedisTokenEntity decoded = codec.deserialize(codec.serialize(entity));
+
+        assertNull(decoded.getToken());
+        decoded.setToken(entity.getToken());
+        assertEquals(entity, decoded);
+    }
+
+    @Test
+    void roundTripsNullsAndNonUuidUserIds() {
+        RedisTokenEntity entity = new RedisTokenEntity(null, null, "legacy-42", false, null, null, null, "ñandú@example.com", null, null);
+
+        assertEquals(entity, codec.deserialize(codec.serialize(entity)));
+    }
+
+    @Test
+    void keepsUserIdsThatAreNotInCanonicalUuidForm() {
+        String upperCase = UUID.randomUUID().toString().toUpperCase();
+        RedisTokenEntity entity = new RedisTokenEntity(null, TokenType.REFRESH_TOKEN, upperCase, true, null, null, null, null, null, null);
+
+        assertEquals(upperCase, codec.deserialize(codec.serialize(entity)).getUserId());
+    }
+
+    @Test
+    void readsVersionTwoEntriesWithoutASession() {
+        RedisTokenEntity entity = entity(randomToken(32));
+        entity.setToken(null);
+        entity.setSessionId(null);
+        byte[] bytes = codec.serialize(entity);
+        // Version 2 is version 3 without the trailing session id, here a single null string marker
+        byte[] versionTwo = Arrays.copyOf(bytes, bytes.length - 1);
+        versionTwo[0] = RedisTokenEntityCodec.VERSION_2;
+
+        assertEquals(entity, codec.deserialize(versionTwo));
+    }
+
+    @Test
+    void readsVersionOneEntriesWithoutATypeOrASession() {
+        RedisTokenEntity entity = entity(randomToken(32));
+        entity.setToken(null);
+        entity.setType(null);
+        entity.setSessionId(null);
+        byte[] bytes = codec.serialize(entity);
+        // Version 1 is version 2 without the type byte that follows the flags
+        byte[] versionOne = new byte[bytes.length - 2];
+        versionOne[0] = RedisTokenEntityCodec.VERSION_1;
+        versionOne[1] = bytes[1];
+        System.arraycopy(bytes, 3, versionOne, 2, bytes.length - 4);
+
+        assertEquals(entity, codec.deserialize(versionOne));
+    }
+
+    @Test
+    void rejectsUnknownVersionsAndTruncatedEntries() {
+        byte[] bytes = codec.serialize(entity(randomToken(32)));
+
+        byte[] unknownVersion = bytes.clone();
+        unknownVersion[0] = 99;
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 5);
+
+        assertThrows(SerializationException.class, () -> codec.deserialize(unknownVersion));
+        assertThrows(SerializationException.class, () -> codec.deserialize(truncated));
+    }
+
+    @Test
+    void isSmallerThanTheJsonFormat() {
+        for (int tokenLength : new int[]{32, 800}) {
+            RedisTokenEntity entity = entity(randomToken(tokenLength));
+            int jsonBytes = jsonSerializer().serialize(entity).length;
+            int binaryBytes = codec.serialize(entity).length;
+
+            assertTrue(binaryBytes * 2 < jsonBytes - tokenLength,
+                    "binary entry should be less than half the JSON entry even ignoring the token");
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void reportsTheFootprintAgainstTheJsonFormat() {
+        for (int tokenLength : new int[]{32, 800}) {
+            RedisTokenEntity entity = entity(randomToken(tokenLength));
+            int jsonBytes = jsonSerializer().serialize(entity).length;
+            int binaryBytes = codec.serialize(entity).length;
+
+            System.out.printf("[RedisTokenEntityCodec] token of %d chars: JSON %d bytes/entry, binary %d bytes/entry"
+                    + " (%.1fx smaller)%n", tokenLength, jsonBytes, binaryBytes, (double) jsonBytes / binaryBytes);
+        }
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        json.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return json;
+    }
+
+    private static RedisTokenEntity entity(String token) {
+        return RedisTokenEntity.builder()
+                .token(token)
+                .type(TokenType.ACCESS_TOKEN)
+                .userId(UUID.randomUUID().toString())
+                .active(true)
+                .expiresAt(Instant.now().plus(15, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MILLIS))
+                .ipAddress("203.0.113.24")
+                .userAgent(USER_AGENT)
+                .subject("jane.doe@example.com")
+                .roles("ROLE_USER")
+                .sessionId("6Yb2VvP0n4vJm3aQ1rE9tXc8kLz5HqWdUoTgSyBfNiA")
+                .build();
+    }
+
+    private static String randomToken(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes).substring(0, length);
+    }
+}
@@ -0,0 +1,141 @@
+package com.axconstantino.auth.infrastructure.token;
+
+import com.axconstantino.auth.domain.model.Role;
+import com.axconstantino.auth.domain.model.Token;
+import com.axconstantino.auth.domain.model.TokenType;
+import com.axconstantino.auth.domain.model.User;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.TokenEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.entity.UserEntity;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.TokenJpaRepository;
+import com.axconstantino.auth.infrastructure.persistence.jpa.repository.UserJpaRepository;
+import com.axconstantino.auth.infrastructure.redis.adapter.TokenWriteQueue;
+import com.axconstantino.auth.infrastructure.redis.model.TokenWrite;
+import com.axconstantino.auth.infrastructure.security.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Applies write-behind batches against an in-memory stand-in of the {@code tokens} table, to check that a batch
+ * applied again, as after a node died or lost the lease before acknowledging it, changes nothing.
+ */
+class TokenWriteBehindFlusherTest {
+
+    private final TokenWriteQueue queue = mock(TokenWriteQueue.class);
+    private final TokenJpaRepository tokenJpaRepository = mock(TokenJpaRepository.class);
+    private final UserJpaRepository userJpaRepository = mock(UserJpaRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    /** Rows of the stand-in table by digest. */
+    private final Map<String, TokenEntity> rows = new LinkedHashMap<>();
+
+    private TokenWriteBehindFlusher flusher;
+    private long sequence;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(queue.refreshBacklog()).thenReturn(1L);
+        when(queue.oldestEnqueuedAt()).thenReturn(Optional.empty());
+        when(queue.holdLease(anyString(), any())).thenReturn(true);
+        when(userJpaRepository.getReferenceById(any())).thenAnswer(invocation ->
+                UserEntity.builder().id(invocation.getArgument(0)).build());
+        when(tokenJpaRepository.findExistingTokenHashes(any())).thenAnswer(invocation ->
+                ((Collection<byte[]>) invocation.getArgument(0)).stream()
+                        .filter(hash -> rows.containsKey(TokenDigest.toBase64Url(hash)))
+                        .toList());
+        when(tokenJpaRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<TokenEntity>) invocation.getArgument(0))
+                    .forEach(row -> rows.put(TokenDigest.toBase64Url(row.getTokenHash()), row));
+            return List.of();
+        });
+        when(tokenJpaRepository.revokeActiveByUserIdIssuedBefore(any(), any())).thenAnswer(invocation -> {
+            UUID userId = invocation.getArgument(0);
+            Instant cutoff = invocation.getArgument(1);
+            int updated = 0;
+            for (Map.Entry<String, TokenEntity> row : Map.copyOf(rows).entrySet()) {
+                TokenEntity token = row.getValue();
+                if (token.getUser().getId().equals(userId) && token.getIssuedAt().isBefore(cutoff) && token.isActive()) {
+                    rows.put(row.getKey(), token.toBuilder().active(false).build());
+                    updated++;
+                }
+            }
+            return updated;
+        });
+
+        flusher = new TokenWriteBehindFlusher(queue, tokenJpaRepository, userJpaRepository, transactionManager,
+                new SimpleMeterRegistry(), Duration.ofSeconds(30), 500, 20);
+    }
+
+    @Test
+    void appliesALoginBatchTwiceWithoutRevokingTheNewTokens() {
+        User user = User.register("jane", "jane@example.com", "hash", Set.of(Role.ROLE_USER));
+        Instant cutoff = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        Token previous = token(user, "previous", cutoff.minus(1, ChronoUnit.HOURS));
+        Token access = token(user, "access", cutoff.plusMillis(250));
+        Token refresh = token(user, "refresh", cutoff.plusMillis(250));
+        List<MapRecord<String, String, String>> earlier = records(TokenWrite.insert(previous));
+        List<MapRecord<String, String, String>> login = records(
+                TokenWrite.revokeAll(user.getId().toString(), List.of(), cutoff),
+                TokenWrite.insert(access),
+                TokenWrite.insert(refresh));
+
+        when(queue.read(anyInt())).thenReturn(earlier);
+        flusher.flush();
+        when(queue.read(anyInt())).thenReturn(login);
+        flusher.flush();
+        assertFalse(isActive(previous));
+        assertTrue(isActive(access));
+        assertTrue(isActive(refresh));
+
+        // Committed, but never acknowledged: the next lease holder reads the same batch again
+        flusher.flush();
+
+        assertEquals(3, rows.size());
+        assertFalse(isActive(previous));
+        assertTrue(isActive(access));
+        assertTrue(isActive(refresh));
+    }
+
+    private boolean isActive(Token token) {
+        return rows.get(TokenDigest.sha256Base64Url(token.getToken())).isActive();
+    }
+
+    private static Token token(User user, String value, Instant issuedAt) {
+        return new Token(value, TokenDigest.sha256(value), TokenType.REFRESH_TOKEN, issuedAt,
+                issuedAt.plus(7, ChronoUnit.DAYS), null, null, true, user);
+    }
+
+    private List<MapRecord<String, String, String>> records(TokenWrite... writes) {
+        return Arrays.stream(writes)
+                .map(write -> MapRecord.create("auth:token-writes", write.toFields())
+                        .withId(RecordId.of(System.currentTimeMillis(), ++sequence)))
+                .toList();
+    }
+}